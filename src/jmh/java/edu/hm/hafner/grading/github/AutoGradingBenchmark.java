@@ -0,0 +1,235 @@
+package edu.hm.hafner.grading.github;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import edu.hm.hafner.analysis.IssueBuilder;
+import edu.hm.hafner.analysis.Report;
+import edu.hm.hafner.analysis.Severity;
+import edu.hm.hafner.coverage.Coverage.CoverageBuilder;
+import edu.hm.hafner.coverage.FileNode;
+import edu.hm.hafner.coverage.Metric;
+import edu.hm.hafner.coverage.ModuleNode;
+import edu.hm.hafner.coverage.Node;
+import edu.hm.hafner.grading.AggregatedScore;
+import edu.hm.hafner.grading.AnalysisConfiguration;
+import edu.hm.hafner.grading.CoverageConfiguration;
+import edu.hm.hafner.grading.GradingReport;
+import edu.hm.hafner.grading.ToolConfiguration;
+import edu.hm.hafner.grading.ToolParser;
+import edu.hm.hafner.util.FilteredLog;
+
+import java.util.concurrent.TimeUnit;
+
+import org.kohsuke.github.GHCheckRun.Conclusion;
+
+/**
+ * Measures the hot paths of the action that depend on the size of the reports: the creation of the annotations, the
+ * four renderings of the {@link GradingReport} that are published for each run, and the creation of the title of the
+ * check. Each benchmark uses a synthetic {@link AggregatedScore}: half of the findings are static analysis warnings
+ * (spread over all severities), the other half are missed lines of the line coverage.
+ *
+ * <p>
+ * Run the benchmarks with {@code mvn -Pbenchmark test-compile exec:exec}. The results are written to
+ * {@code target/jmh-result.json}. Additional JMH options can be passed using the property {@code jmh.args}, e.g.,
+ * {@code -Djmh.args="-p findings=100 -f 1"}.
+ * </p>
+ *
+ * @author Ullrich Hafner
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class AutoGradingBenchmark {
+    private static final String CHECKS_NAME = "Benchmark";
+    private static final String ANALYSIS_CONFIGURATION = """
+            {
+              "analysis": [
+                {
+                  "name": "Style",
+                  "id": "style",
+                  "tools": [
+                    {
+                      "id": "checkstyle",
+                      "name": "CheckStyle",
+                      "pattern": "**/checkstyle.xml"
+                    }
+                  ],
+                  "errorImpact": -1,
+                  "highImpact": -1,
+                  "normalImpact": -1,
+                  "lowImpact": -1,
+                  "maxScore": 100
+                }
+              ]
+            }
+            """;
+    private static final String COVERAGE_CONFIGURATION = """
+            {
+              "coverage": [
+                {
+                  "name": "Code Coverage",
+                  "tools": [
+                    {
+                      "id": "jacoco",
+                      "name": "Line Coverage",
+                      "metric": "line",
+                      "pattern": "**/jacoco.xml"
+                    }
+                  ],
+                  "maxScore": 100,
+                  "missedPercentageImpact": -1
+                }
+              ]
+            }
+            """;
+    private static final int LINES_PER_FILE = 1000;
+    private static final Severity[] SEVERITIES = {
+            Severity.ERROR, Severity.WARNING_HIGH, Severity.WARNING_NORMAL, Severity.WARNING_LOW};
+
+    @Param({"100", "10000", "1000000"})
+    private int findings;
+
+    private AggregatedScore score;
+    private GitHubAutoGradingRunner runner;
+
+    /**
+     * Creates the synthetic score with the configured number of findings.
+     */
+    @Setup(Level.Trial)
+    public void createScore() {
+        var log = new FilteredLog("Benchmark");
+        var parser = new SyntheticToolParser(createReport(findings / 2), createCoverage(findings - findings / 2));
+
+        score = new AggregatedScore(log);
+        score.gradeAnalysis(parser, AnalysisConfiguration.from(ANALYSIS_CONFIGURATION));
+        score.gradeCoverage(parser, CoverageConfiguration.from(COVERAGE_CONFIGURATION));
+
+        runner = new GitHubAutoGradingRunner();
+    }
+
+    /**
+     * Creates the annotations for all findings.
+     *
+     * @param blackhole
+     *         consumes the created annotations
+     */
+    @Benchmark
+    public void createAnnotations(final Blackhole blackhole) {
+        new GitHubAnnotationsBuilder(blackhole::consume, "/tmp/", new FilteredLog("Benchmark"))
+                .createAnnotations(score);
+    }
+
+    /**
+     * Renders the text summary of the check.
+     *
+     * @return the rendered text
+     */
+    @Benchmark
+    public String getTextSummary() {
+        return new GradingReport().getTextSummary(score, CHECKS_NAME);
+    }
+
+    /**
+     * Renders the Markdown details of the check.
+     *
+     * @return the rendered text
+     */
+    @Benchmark
+    public String getMarkdownDetails() {
+        return new GradingReport().getMarkdownDetails(score, CHECKS_NAME);
+    }
+
+    /**
+     * Renders the details of the sub-scores.
+     *
+     * @return the rendered text
+     */
+    @Benchmark
+    public String getSubScoreDetails() {
+        return new GradingReport().getSubScoreDetails(score).toString();
+    }
+
+    /**
+     * Renders the Markdown summary of the pull request comment.
+     *
+     * @return the rendered text
+     */
+    @Benchmark
+    public String getMarkdownSummary() {
+        return new GradingReport().getMarkdownSummary(score, CHECKS_NAME, true);
+    }
+
+    /**
+     * Creates the title of the check.
+     *
+     * @return the title
+     */
+    @Benchmark
+    public String createMetricsBasedTitle() {
+        return runner.createMetricsBasedTitle(score, Conclusion.SUCCESS, new FilteredLog("Benchmark"));
+    }
+
+    private static Report createReport(final int size) {
+        var report = new Report("checkstyle", "CheckStyle");
+        try (var builder = new IssueBuilder()) {
+            for (int i = 0; i < size; i++) {
+                report.add(builder.setFileName(getFileName(i))
+                        .setLineStart(i % LINES_PER_FILE + 1)
+                        .setSeverity(SEVERITIES[i % SEVERITIES.length])
+                        .setCategory("Style")
+                        .setType("Rule" + i % 100)
+                        .setMessage("Synthetic warning " + i)
+                        .buildAndClean());
+            }
+        }
+        return report;
+    }
+
+    // every second line of a file is missed, so that each missed line results in a separate finding
+    private static Node createCoverage(final int missedLines) {
+        var root = new ModuleNode("benchmark");
+        var missedPerFile = LINES_PER_FILE / 2;
+        for (int start = 0; start < missedLines; start += missedPerFile) {
+            var missed = Math.min(missedPerFile, missedLines - start);
+            var file = new FileNode(getFileName(start * 2), getFileName(start * 2));
+            for (int line = 1; line <= missed * 2; line++) {
+                file.addCounters(line, line % 2 == 0 ? 1 : 0, line % 2 == 0 ? 0 : 1);
+            }
+            file.addValue(new CoverageBuilder().withMetric(Metric.LINE)
+                    .withCovered(missed).withMissed(missed).build());
+            root.addChild(file);
+        }
+        return root;
+    }
+
+    private static String getFileName(final int finding) {
+        return "/tmp/src/main/java/edu/hm/hafner/File" + finding / LINES_PER_FILE + ".java";
+    }
+
+    private record SyntheticToolParser(Report report, Node coverage) implements ToolParser {
+        @Override
+        public Report readReport(final ToolConfiguration tool, final FilteredLog log) {
+            return report;
+        }
+
+        @Override
+        public Node readNode(final ToolConfiguration tool, final FilteredLog log) {
+            return coverage;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package edu.hm.hafner.grading.github;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.hm.hafner.analysis.registry.ParserRegistry;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the startup costs of resolving the display name of a parser in a fresh JVM: the index of
+ * {@link ParserNames} is compared with the creation of a {@link ParserRegistry}. Each fork measures only the first
+ * invocation, so the measured time contains the loading and initialization of the involved classes.
+ *
+ * @author Ullrich Hafner
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class ParserNamesStartupBenchmark {
+    private static final String CHECKSTYLE = "checkstyle";
+
+    /**
+     * Resolves the name using the index that has been created at build time.
+     *
+     * @return the name of the parser
+     */
+    @Benchmark
+    public Optional<String> getNameFromIndex() {
+        return ParserNames.getName(CHECKSTYLE);
+    }
+
+    /**
+     * Resolves the name using a new registry.
+     *
+     * @return the name of the parser
+     */
+    @Benchmark
+    public String getNameFromRegistry() {
+        return new ParserRegistry().get(CHECKSTYLE).getName();
+    }
+}
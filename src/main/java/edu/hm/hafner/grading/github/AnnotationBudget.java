@@ -0,0 +1,118 @@
+package edu.hm.hafner.grading.github;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.function.Consumer;
+
+import org.kohsuke.github.GHCheckRunBuilder.Annotation;
+
+/**
+ * Selects the most important annotations within a fixed budget. Each candidate has a numeric priority, higher values
+ * are more important. The budget keeps the best candidates in a bounded min-heap: a new candidate is compared with
+ * the weakest selected candidate first, so the annotation only needs to be created if the candidate will be
+ * selected. When the budget is flushed, the selected annotations are passed to the consumer in the order in which
+ * they have been offered.
+ *
+ * <p>
+ * If the budget is unlimited, then each annotation is passed immediately to the consumer.
+ * </p>
+ *
+ * @author Ullrich Hafner
+ */
+class AnnotationBudget {
+    private static final Comparator<Candidate> WEAKEST_FIRST = Comparator.comparingLong(Candidate::priority)
+            .thenComparing(Comparator.comparingLong(Candidate::sequence).reversed());
+
+    private final int limit;
+    private final Consumer<Annotation> consumer;
+    private final Queue<Candidate> selected;
+
+    private long sequence;
+    private int discarded;
+
+    AnnotationBudget(final int limit, final Consumer<Annotation> consumer) {
+        this.limit = Math.max(limit, 0);
+        this.consumer = consumer;
+        selected = new PriorityQueue<>(WEAKEST_FIRST);
+    }
+
+    /**
+     * Returns whether all annotations will be selected. In this case, the priorities of the annotations are not
+     * evaluated and do not need to be computed.
+     *
+     * @return {@code true} if the budget is unlimited, {@code false} otherwise
+     */
+    boolean isUnlimited() {
+        return limit == Integer.MAX_VALUE;
+    }
+
+    /**
+     * Returns whether a candidate with the specified priority would be selected. Use this method to avoid the creation
+     * of annotations that will be discarded anyway.
+     *
+     * @param priority
+     *         the priority of the candidate
+     *
+     * @return {@code true} if the candidate would be selected, {@code false} otherwise
+     */
+    boolean accepts(final long priority) {
+        if (isUnlimited() || selected.size() < limit) {
+            return true;
+        }
+        var weakest = selected.peek();
+        return weakest != null && priority > weakest.priority();
+    }
+
+    /**
+     * Offers the specified annotation. Call {@link #accepts(long)} before creating the annotation.
+     *
+     * @param priority
+     *         the priority of the annotation
+     * @param annotation
+     *         the annotation
+     */
+    void offer(final long priority, final Annotation annotation) {
+        if (isUnlimited()) {
+            consumer.accept(annotation);
+
+            return;
+        }
+        if (!accepts(priority)) {
+            discard();
+
+            return;
+        }
+        if (selected.size() == limit) {
+            selected.remove(); // replace the weakest candidate
+            discarded++;
+        }
+        selected.add(new Candidate(priority, sequence, annotation));
+        sequence++;
+    }
+
+    /**
+     * Records a candidate that has been rejected by {@link #accepts(long)}.
+     */
+    void discard() {
+        discarded++;
+    }
+
+    /**
+     * Passes all selected annotations to the consumer.
+     */
+    void flush() {
+        var annotations = new ArrayList<>(selected);
+        selected.clear();
+        annotations.sort(Comparator.comparingLong(Candidate::sequence));
+        annotations.forEach(candidate -> consumer.accept(candidate.annotation()));
+    }
+
+    int getDiscarded() {
+        return discarded;
+    }
+
+    private record Candidate(long priority, long sequence, Annotation annotation) {
+    }
+}
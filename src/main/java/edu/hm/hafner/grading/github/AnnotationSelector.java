@@ -0,0 +1,85 @@
+package edu.hm.hafner.grading.github;
+
+import org.apache.commons.lang3.math.NumberUtils;
+
+import edu.hm.hafner.util.FilteredLog;
+
+import java.util.function.Consumer;
+
+import org.kohsuke.github.GHCheckRunBuilder.Annotation;
+
+/**
+ * Selects the deferred annotations of an {@link Outbox} entry when the entry is published. The same reductions as in
+ * {@link GitHubAnnotationsBuilder} are applied: annotations outside the changed lines of the pull request are skipped,
+ * and the limits for warning and coverage annotations select the annotations with the highest priority. Since the
+ * ranges of missed lines have already been coalesced, a range is kept if it contains at least one changed line.
+ *
+ * @author Ullrich Hafner
+ */
+class AnnotationSelector {
+    private final ChangedLines changedLines;
+    private final FilteredLog log;
+    private final AnnotationBudget warningBudget;
+    private final AnnotationBudget coverageBudget;
+
+    private int unchangedAnnotations;
+
+    /**
+     * Creates a new annotation selector.
+     *
+     * @param annotations
+     *         the consumer of the selected annotations
+     * @param changedLines
+     *         the changed lines of the pull request
+     * @param maxWarningAnnotations
+     *         the maximum number of warning annotations (value of {@code MAX_WARNING_ANNOTATIONS}), unlimited if
+     *         empty
+     * @param maxCoverageAnnotations
+     *         the maximum number of coverage annotations (value of {@code MAX_COVERAGE_ANNOTATIONS}), unlimited if
+     *         empty
+     * @param log
+     *         the logger
+     */
+    AnnotationSelector(final Consumer<Annotation> annotations, final ChangedLines changedLines,
+            final String maxWarningAnnotations, final String maxCoverageAnnotations, final FilteredLog log) {
+        this.changedLines = changedLines;
+        this.log = log;
+
+        warningBudget = new AnnotationBudget(NumberUtils.toInt(maxWarningAnnotations, Integer.MAX_VALUE), annotations);
+        coverageBudget = new AnnotationBudget(NumberUtils.toInt(maxCoverageAnnotations, Integer.MAX_VALUE),
+                annotations);
+    }
+
+    /**
+     * Selects the annotations that are passed by the specified source and sends them to the consumer.
+     *
+     * @param annotations
+     *         passes the deferred annotations to the specified consumer
+     */
+    void select(final Consumer<Consumer<RankedAnnotation>> annotations) {
+        annotations.accept(this::offer);
+
+        warningBudget.flush();
+        coverageBudget.flush();
+
+        if (unchangedAnnotations > 0) {
+            log.logInfo("Skipped %d annotations outside the changed lines", unchangedAnnotations);
+        }
+        if (warningBudget.getDiscarded() > 0 || coverageBudget.getDiscarded() > 0) {
+            log.logInfo("Skipped %d warning and %d coverage annotations with lower priority due to the limits",
+                    warningBudget.getDiscarded(), coverageBudget.getDiscarded());
+        }
+    }
+
+    private void offer(final RankedAnnotation annotation) {
+        if (!changedLines.contains(annotation.path(), annotation.lineStart(), annotation.lineEnd())) {
+            unchangedAnnotations++;
+
+            return;
+        }
+        var budget = annotation.isWarning() ? warningBudget : coverageBudget;
+        budget.offer(annotation.priority()
+                | GitHubAnnotationsBuilder.getChangedFilePriority(changedLines, annotation.path()),
+                annotation.annotation());
+    }
+}
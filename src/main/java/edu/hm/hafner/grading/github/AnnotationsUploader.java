@@ -0,0 +1,122 @@
+package edu.hm.hafner.grading.github;
+
+import edu.hm.hafner.util.FilteredLog;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.kohsuke.github.GHCheckRun;
+import org.kohsuke.github.GHCheckRunBuilder.Annotation;
+import org.kohsuke.github.GHCheckRunBuilder.Output;
+
+/**
+ * Uploads the annotations of an already created GitHub check run. The GitHub Checks API accepts at most 50 annotations
+ * per request, so the annotations are appended to the check run in batches using several update requests. The text of
+ * the output has been sent already when the check run has been created, so the batches contain only the annotations
+ * and the title and summary that are required by the API. A rejected batch is logged and skipped, the remaining
+ * batches will be uploaded nevertheless. Afterward, the summary of the check run is extended by a warning that shows
+ * the number of missing annotations.
+ *
+ * <p>
+ * The uploader is a streaming consumer: the annotations are buffered only until a batch is complete. Each batch is
+ * sent and released immediately, so the memory footprint depends on the batch size and not on the number of
+ * annotations. The final, incomplete batch is sent when the uploader is closed.
+ * </p>
+ *
+ * @author Ullrich Hafner
+ */
+class AnnotationsUploader implements Consumer<Annotation>, AutoCloseable {
+    static final int MAX_ANNOTATIONS_PER_REQUEST = 50;
+
+    private final GHCheckRun checkRun;
+    private final String title;
+    private final String summary;
+    private final FilteredLog log;
+
+    private final List<Annotation> batch = new ArrayList<>(MAX_ANNOTATIONS_PER_REQUEST);
+    private int uploadedAnnotations;
+    private int failedAnnotations;
+    private int requests;
+
+    AnnotationsUploader(final GHCheckRun checkRun, final String title, final String summary, final FilteredLog log) {
+        this.checkRun = checkRun;
+        this.title = title;
+        this.summary = summary;
+        this.log = log;
+    }
+
+    /**
+     * Adds the specified annotation to the current batch. If the batch is complete, then it will be uploaded.
+     *
+     * @param annotation
+     *         the annotation to upload
+     */
+    @Override
+    public void accept(final Annotation annotation) {
+        batch.add(annotation);
+        if (batch.size() == MAX_ANNOTATIONS_PER_REQUEST) {
+            uploadBatch();
+        }
+    }
+
+    /**
+     * Uploads the remaining annotations of the last batch. If some batches have been rejected, then the check run is
+     * marked as incomplete.
+     */
+    @Override
+    public void close() {
+        if (!batch.isEmpty()) {
+            uploadBatch();
+        }
+        if (requests > 0) {
+            log.logInfo("Uploaded %d of %d annotations using %d request(s)",
+                    uploadedAnnotations, uploadedAnnotations + failedAnnotations, requests);
+        }
+        if (failedAnnotations > 0) {
+            markIncomplete();
+        }
+    }
+
+    private void uploadBatch() {
+        var output = new Output(title, summary);
+        batch.forEach(output::add);
+
+        requests++;
+        try {
+            checkRun.update().add(output).create();
+            uploadedAnnotations += batch.size();
+        }
+        catch (IOException exception) {
+            failedAnnotations += batch.size();
+            log.logError("Could not upload %d annotations (batch %d): %s", batch.size(), requests,
+                    GitHubPublisher.getErrorMessage(exception));
+        }
+        batch.clear();
+    }
+
+    // the summary is replaced by the update, the annotations that have been uploaded already are kept
+    private void markIncomplete() {
+        var warning = "\n\n> [!WARNING]\n> " + failedAnnotations + " of " + (uploadedAnnotations + failedAnnotations)
+                + " annotations could not be uploaded, see the log for details.\n";
+        try {
+            checkRun.update().add(new Output(title, summary + warning)).create();
+        }
+        catch (IOException exception) {
+            log.logError("Could not mark the check run as incomplete: %s", GitHubPublisher.getErrorMessage(exception));
+        }
+    }
+
+    int getUploadedAnnotations() {
+        return uploadedAnnotations;
+    }
+
+    int getFailedAnnotations() {
+        return failedAnnotations;
+    }
+
+    int getRequests() {
+        return requests;
+    }
+}
@@ -0,0 +1,262 @@
+package edu.hm.hafner.grading.github;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the values in a compact binary format. The format has the same structure as JSON, but repeated texts (names
+ * of values, file names, tool names, etc.) are stored only once. The format is defined as follows:
+ * <ul>
+ *     <li>Header: the magic bytes {@code AGSX} followed by one byte with the version of the format.</li>
+ *     <li>Value: one byte with the type of the value, followed by the name of the value (a text), followed by the
+ *     payload of the type. The end of an object or array has no name and no payload.</li>
+ *     <li>Text: an unsigned variable length integer {@code n}. If {@code n} is zero, then a new text follows: its
+ *     length in bytes (unsigned variable length integer, at most {@link #MAX_TEXT_LENGTH}) and its UTF-8 bytes.
+ *     The new text gets the next free index, starting with zero. Otherwise, {@code n - 1} is the index of a text
+ *     that has been defined before.</li>
+ *     <li>Integers are stored as zig-zag encoded variable length integers (7 bits per byte, least significant group
+ *     first), floating point values as 8 bytes in IEEE 754 format.</li>
+ * </ul>
+ * So the values can be read in a streaming way, e.g., by using {@link #read(InputStream)}.
+ *
+ * @author Ullrich Hafner
+ */
+class BinaryExportWriter implements ExportWriter {
+    static final byte[] MAGIC = {'A', 'G', 'S', 'X'};
+    static final int VERSION = 1;
+    static final int MAX_TEXT_LENGTH = 16 * 1024 * 1024;
+
+    private static final int OBJECT_START = 1;
+    private static final int OBJECT_END = 2;
+    private static final int ARRAY_START = 3;
+    private static final int ARRAY_END = 4;
+    private static final int STRING = 5;
+    private static final int INTEGER = 6;
+    private static final int DOUBLE = 7;
+    private static final int TRUE = 8;
+    private static final int FALSE = 9;
+
+    private static final int SEVEN_BITS = 0x7F;
+    private static final int CONTINUATION = 0x80;
+
+    private final DataOutputStream output;
+    private final Map<String, Integer> texts = new HashMap<>();
+
+    /**
+     * Creates a new instance of {@link BinaryExportWriter} and writes the header.
+     *
+     * @param output
+     *         the stream to write to, will be closed when this writer is closed
+     *
+     * @throws IOException
+     *         if the header could not be written
+     */
+    BinaryExportWriter(final OutputStream output) throws IOException {
+        this.output = new DataOutputStream(output);
+
+        this.output.write(MAGIC);
+        this.output.writeByte(VERSION);
+    }
+
+    @Override
+    public void startObject(final String name) throws IOException {
+        writeType(OBJECT_START, name);
+    }
+
+    @Override
+    public void endObject() throws IOException {
+        output.writeByte(OBJECT_END);
+    }
+
+    @Override
+    public void startArray(final String name) throws IOException {
+        writeType(ARRAY_START, name);
+    }
+
+    @Override
+    public void endArray() throws IOException {
+        output.writeByte(ARRAY_END);
+    }
+
+    @Override
+    public void writeString(final String name, final String value) throws IOException {
+        writeType(STRING, name);
+        writeText(value);
+    }
+
+    @Override
+    public void writeNumber(final String name, final long value) throws IOException {
+        writeType(INTEGER, name);
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    @Override
+    public void writeNumber(final String name, final double value) throws IOException {
+        writeType(DOUBLE, name);
+        output.writeDouble(value);
+    }
+
+    @Override
+    public void writeBoolean(final String name, final boolean value) throws IOException {
+        writeType(value ? TRUE : FALSE, name);
+    }
+
+    @Override
+    public void close() throws IOException {
+        output.close();
+    }
+
+    private void writeType(final int type, final String name) throws IOException {
+        output.writeByte(type);
+        writeText(name);
+    }
+
+    private void writeText(final String text) throws IOException {
+        var index = texts.get(text);
+        if (index == null) {
+            texts.put(text, texts.size());
+            var bytes = text.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(0);
+            writeVarLong(bytes.length);
+            output.write(bytes);
+        }
+        else {
+            writeVarLong(index + 1L);
+        }
+    }
+
+    private void writeVarLong(final long value) throws IOException {
+        var remaining = value;
+        while ((remaining & ~SEVEN_BITS) != 0) {
+            output.writeByte((int) (remaining & SEVEN_BITS) | CONTINUATION);
+            remaining >>>= 7;
+        }
+        output.writeByte((int) remaining);
+    }
+
+    /**
+     * Reads the values of the specified binary stream and converts them to a JSON tree.
+     *
+     * @param input
+     *         the stream to read
+     *
+     * @return the root value of the stream
+     * @throws IOException
+     *         if the stream could not be read or is not in the binary format
+     */
+    static JsonNode read(final InputStream input) throws IOException {
+        var data = new DataInputStream(new BufferedInputStream(input));
+        var header = new byte[MAGIC.length];
+        data.readFully(header);
+        if (!Arrays.equals(header, MAGIC)) {
+            throw new IOException("Not a binary score export");
+        }
+        var version = data.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported version of the binary score export: " + version);
+        }
+        return new Reader(data).readValue(data.readUnsignedByte());
+    }
+
+    /**
+     * Reads the values of the binary format.
+     */
+    private static final class Reader {
+        private final DataInputStream input;
+        private final List<String> texts = new ArrayList<>();
+
+        Reader(final DataInputStream input) {
+            this.input = input;
+        }
+
+        JsonNode readValue(final int type) throws IOException {
+            readText(); // the root value and the values of arrays have an empty name
+            return readPayload(type);
+        }
+
+        private JsonNode readPayload(final int type) throws IOException {
+            return switch (type) {
+                case OBJECT_START -> readObject();
+                case ARRAY_START -> readArray();
+                case STRING -> JsonNodeFactory.instance.textNode(readText());
+                case INTEGER -> createNumber(readVarLong());
+                case DOUBLE -> JsonNodeFactory.instance.numberNode(input.readDouble());
+                case TRUE -> JsonNodeFactory.instance.booleanNode(true);
+                case FALSE -> JsonNodeFactory.instance.booleanNode(false);
+                default -> throw new IOException("Unknown type in binary score export: " + type);
+            };
+        }
+
+        // small values use the same node type as the JSON parser, so the trees of both formats are equal
+        private JsonNode createNumber(final long zigZag) {
+            var value = (zigZag >>> 1) ^ -(zigZag & 1);
+            if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+                return JsonNodeFactory.instance.numberNode((int) value);
+            }
+            return JsonNodeFactory.instance.numberNode(value);
+        }
+
+        private ObjectNode readObject() throws IOException {
+            var object = JsonNodeFactory.instance.objectNode();
+            for (int type = input.readUnsignedByte(); type != OBJECT_END; type = input.readUnsignedByte()) {
+                var name = readText();
+                object.set(name, readPayload(type));
+            }
+            return object;
+        }
+
+        private ArrayNode readArray() throws IOException {
+            var array = JsonNodeFactory.instance.arrayNode();
+            for (int type = input.readUnsignedByte(); type != ARRAY_END; type = input.readUnsignedByte()) {
+                array.add(readValue(type));
+            }
+            return array;
+        }
+
+        private String readText() throws IOException {
+            var index = readVarLong();
+            if (index == 0) {
+                var length = readVarLong();
+                if (length < 0 || length > MAX_TEXT_LENGTH) {
+                    throw new IOException("Invalid text length in binary score export: " + length);
+                }
+                var bytes = new byte[(int) length];
+                input.readFully(bytes);
+                var text = new String(bytes, StandardCharsets.UTF_8);
+                texts.add(text);
+                return text;
+            }
+            if (index > texts.size()) {
+                throw new IOException("Invalid text reference in binary score export: " + index);
+            }
+            return texts.get(Math.toIntExact(index - 1));
+        }
+
+        private long readVarLong() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < Long.SIZE; shift += 7) {
+                var current = input.readUnsignedByte();
+                value |= (long) (current & SEVEN_BITS) << shift;
+                if ((current & CONTINUATION) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed variable length integer in binary score export");
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package edu.hm.hafner.grading.github;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import org.apache.commons.lang3.StringUtils;
+
+import edu.hm.hafner.analysis.Report;
+import edu.hm.hafner.coverage.Node;
+import edu.hm.hafner.grading.ToolConfiguration;
+import edu.hm.hafner.grading.ToolParser;
+import edu.hm.hafner.util.FilteredLog;
+
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A {@link ToolParser} that stores the results of another parser in a cache directory. The results are stored as
+ * compressed serialized objects, the name of a cache entry is the SHA-256 hash of the tool configuration, the mode of
+ * the decorated parser, and the contents of all report files that match the pattern of the tool. If the report files
+ * of a tool did not change since the previous run, the results are read from the cache and the report files are not
+ * parsed again. The cache directory can be shared between workflow runs using the {@code actions/cache} action.
+ *
+ * <p>
+ * Since the cache directory is restored from outside the workflow run, only the classes of the models can be read
+ * from a cache entry: all other classes are rejected. Additionally, the depth of the object graph and the size of
+ * arrays are limited. Entries that cannot be read are ignored, and the report files are parsed again.
+ * </p>
+ *
+ * <p>
+ * Each report file is hashed only once, even if it is used by several tools (e.g., line and branch coverage of
+ * JaCoCo). Results are only cached if no errors have been logged while parsing the reports. Cache entries that have not been
+ * used for some days are removed by {@link #removeStaleEntries(FilteredLog)}.
+ * </p>
+ *
+ * @author Ullrich Hafner
+ */
+class CachingToolParser implements ToolParser {
+    private static final String SUFFIX = ".ser.gz";
+    private static final Duration MAX_AGE = Duration.ofDays(7);
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final ObjectInputFilter CLASS_FILTER = ObjectInputFilter.Config.createFilter(String.join(";",
+            "maxdepth=100", "maxarray=10000000", "maxrefs=10000000",
+            "edu.hm.hafner.analysis.Report", "edu.hm.hafner.analysis.Report$IssueType",
+            "edu.hm.hafner.coverage.Node", "edu.hm.hafner.coverage.ContainerNode", "edu.hm.hafner.coverage.ModuleNode",
+            "edu.hm.hafner.coverage.PackageNode", "edu.hm.hafner.coverage.FileNode", "edu.hm.hafner.coverage.ClassNode",
+            "edu.hm.hafner.coverage.MethodNode", "edu.hm.hafner.coverage.Value", "edu.hm.hafner.coverage.Coverage",
+            "edu.hm.hafner.coverage.Metric", "edu.hm.hafner.coverage.Mutation", "edu.hm.hafner.coverage.MutationStatus",
+            "edu.hm.hafner.coverage.TestCase", "edu.hm.hafner.coverage.TestCase$TestResult",
+            "edu.hm.hafner.util.LineRangeList", "edu.hm.hafner.util.TreeString",
+            "org.apache.commons.lang3.math.Fraction", "java.lang.Object", "java.lang.Enum", "java.lang.Number",
+            "java.lang.Integer", "java.util.ArrayList", "java.util.HashMap", "java.util.TreeMap", "java.util.TreeSet",
+            "java.util.UUID", "!*"));
+
+    private final ToolParser parser;
+    private final Path reportDirectory;
+    private final String mode;
+    private final Path cacheDirectory;
+    private final String version;
+    private final Map<Path, byte[]> fileDigests = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new instance of {@link CachingToolParser}.
+     *
+     * @param parser
+     *         the parser that reads the report files if there is no cache entry
+     * @param reportDirectory
+     *         the directory that contains the report files (see {@link ReportDirectoryToolParser})
+     * @param mode
+     *         the mode of the parser (e.g., whether the coverage trees are trimmed), entries of other modes are not used
+     * @param cacheDirectory
+     *         the directory that contains the cache entries
+     * @param version
+     *         the version of the action, entries of other versions are not used
+     */
+    CachingToolParser(final ToolParser parser, final Path reportDirectory, final String mode,
+            final Path cacheDirectory, final String version) {
+        this.parser = parser;
+        this.reportDirectory = reportDirectory;
+        this.mode = mode;
+        this.cacheDirectory = cacheDirectory;
+        this.version = version;
+    }
+
+    @Override
+    public Report readReport(final ToolConfiguration tool, final FilteredLog log) {
+        return read(tool, Report.class, () -> parser.readReport(tool, log), log);
+    }
+
+    @Override
+    public Node readNode(final ToolConfiguration tool, final FilteredLog log) {
+        return read(tool, Node.class, () -> parser.readNode(tool, log), log);
+    }
+
+    private <T extends Serializable> T read(final ToolConfiguration tool, final Class<T> type,
+            final Supplier<T> reader, final FilteredLog log) {
+        var key = createKey(tool, type, log);
+        if (key.isEmpty()) {
+            return reader.get();
+        }
+
+        var entry = cacheDirectory.resolve(key.get() + SUFFIX);
+        var cached = load(entry, type, log);
+        if (cached.isPresent()) {
+            log.logInfo("Reusing cached results for %s (report files are unchanged)", tool.getDisplayName());
+            if (cached.get() instanceof Report report) {
+                log.logInfo("-> %s", report); // same summary as the FileSystemToolParser
+            }
+            return cached.get();
+        }
+
+        var errors = log.getErrorMessages().size();
+        var result = reader.get();
+        if (log.getErrorMessages().size() == errors) {
+            store(key.get(), entry, result, log);
+        }
+        return result;
+    }
+
+    /**
+     * Removes all cache entries that have not been used for some days.
+     *
+     * @param log
+     *         the logger
+     */
+    void removeStaleEntries(final FilteredLog log) {
+        if (!Files.isDirectory(cacheDirectory)) {
+            return;
+        }
+
+        var expiration = FileTime.from(Instant.now().minus(MAX_AGE));
+        try (var entries = Files.list(cacheDirectory)) {
+            for (Path entry : entries.filter(file -> file.toString().endsWith(SUFFIX)).toList()) {
+                if (Files.getLastModifiedTime(entry).compareTo(expiration) < 0) {
+                    Files.deleteIfExists(entry);
+                }
+            }
+        }
+        catch (IOException exception) {
+            log.logInfo("Could not remove stale entries of report cache '%s': %s",
+                    cacheDirectory, StringUtils.defaultString(exception.getMessage()));
+        }
+    }
+
+    private Optional<String> createKey(final ToolConfiguration tool, final Class<?> type, final FilteredLog log) {
+        try {
+            var files = ReportDirectoryToolParser.findReportFiles(reportDirectory, tool.getPattern());
+            if (files.isEmpty()) {
+                return Optional.empty(); // the parser reports the configuration error
+            }
+
+            var digest = createDigest();
+            update(digest, version, mode, type.getName(),
+                    tool.getId(), tool.getName(), tool.getIcon(), tool.getPattern(), tool.getMetric());
+            for (Path file : files) {
+                update(digest, file.toString());
+                digest.update(fileDigests.computeIfAbsent(file, this::hash));
+            }
+            return Optional.of(HexFormat.of().formatHex(digest.digest()));
+        }
+        catch (IOException | UncheckedIOException | IllegalArgumentException | NoSuchAlgorithmException exception) {
+            log.logInfo("Skipping report cache for %s: %s", tool.getDisplayName(),
+                    StringUtils.defaultString(exception.getMessage()));
+
+            return Optional.empty();
+        }
+    }
+
+    private void update(final MessageDigest digest, final String... values) {
+        for (String value : values) {
+            digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+    }
+
+    private MessageDigest createDigest() throws NoSuchAlgorithmException {
+        return MessageDigest.getInstance("SHA-256");
+    }
+
+    private byte[] hash(final Path file) {
+        try (var input = Files.newInputStream(file);
+                var output = new DigestOutputStream(OutputStream.nullOutputStream(), createDigest())) {
+            input.transferTo(output);
+            return output.getMessageDigest().digest();
+        }
+        catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        catch (NoSuchAlgorithmException exception) {
+            throw new IllegalArgumentException(exception);
+        }
+    }
+
+    @SuppressWarnings("BanSerializableRead") // the class filter accepts only the classes of the models
+    @SuppressFBWarnings(value = "OBJECT_DESERIALIZATION",
+            justification = "Only the classes of the models can be deserialized")
+    private <T> Optional<T> load(final Path entry, final Class<T> type, final FilteredLog log) {
+        if (!Files.isReadable(entry)) {
+            return Optional.empty();
+        }
+
+        try (var input = new ObjectInputStream(
+                new GZIPInputStream(Files.newInputStream(entry), BUFFER_SIZE))) {
+            input.setObjectInputFilter(CLASS_FILTER);
+            var result = type.cast(input.readObject());
+            Files.setLastModifiedTime(entry, FileTime.from(Instant.now()));
+            return Optional.of(result);
+        }
+        catch (IOException | ClassNotFoundException | ClassCastException exception) {
+            log.logInfo("Ignoring invalid report cache entry '%s': %s", entry,
+                    StringUtils.defaultString(exception.getMessage()));
+
+            return Optional.empty();
+        }
+    }
+
+    private void store(final String key, final Path entry, final Serializable result, final FilteredLog log) {
+        try {
+            Files.createDirectories(cacheDirectory);
+            var temporary = Files.createTempFile(cacheDirectory, key, ".tmp");
+            try (var output = new ObjectOutputStream(
+                    new GZIPOutputStream(Files.newOutputStream(temporary), BUFFER_SIZE))) {
+                output.writeObject(result);
+            }
+            Files.move(temporary, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (IOException exception) {
+            log.logInfo("Could not write report cache entry '%s': %s", entry,
+                    StringUtils.defaultString(exception.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package edu.hm.hafner.grading.github;
+
+import org.apache.commons.lang3.StringUtils;
+
+import edu.hm.hafner.util.FilteredLog;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+import org.kohsuke.github.GHPullRequest;
+
+/**
+ * An index of the lines that have been added or modified in a pull request. For each file the changed lines are
+ * stored as sorted, non-overlapping intervals, so that a lookup requires O(log n) time.
+ *
+ * @author Ullrich Hafner
+ */
+class ChangedLines {
+    private static final Pattern HUNK_HEADER = Pattern.compile("^@@ -\\d+(?:,\\d+)? \\+(\\d+)(?:,\\d+)? @@.*");
+    private static final int PAGE_SIZE = 100;
+
+    /**
+     * Returns an index that contains all lines of all files, i.e., nothing will be filtered.
+     *
+     * @return an index with all lines
+     */
+    static ChangedLines all() {
+        return new ChangedLines(true);
+    }
+
+    /**
+     * Creates the index of the changed lines of the specified pull request. The diff is fetched using the files API
+     * of the pull request.
+     *
+     * @param pullRequest
+     *         the pull request
+     * @param log
+     *         the logger
+     *
+     * @return the changed lines of the pull request
+     * @throws IOException
+     *         if the files of the pull request could not be fetched
+     */
+    static ChangedLines fromPullRequest(final GHPullRequest pullRequest, final FilteredLog log) throws IOException {
+        var changedLines = new ChangedLines();
+        // the pages are fetched before iterating, so that errors are reported as IOException rather than GHException
+        for (var file : pullRequest.listFiles().withPageSize(PAGE_SIZE).toList()) {
+            changedLines.addPatch(file.getFilename(), StringUtils.defaultString(file.getPatch()));
+        }
+        log.logInfo("Found %d changed lines in %d files of the pull request",
+                changedLines.getLineCount(), changedLines.getFileCount());
+        return changedLines;
+    }
+
+    /**
+     * Returns the changed lines of the specified pull request that are required to create its annotations. The files
+     * of the pull request are fetched only if the annotations are filtered by the changed lines or if the number of
+     * annotations is limited: in the latter case the changed files are used to rank the annotations.
+     *
+     * @param client
+     *         the GitHub client
+     * @param publication
+     *         the publication with the pull request and the options to select the annotations
+     * @param log
+     *         the logger
+     *
+     * @return the changed lines of the pull request, or an index with all lines if these are not required
+     */
+    static ChangedLines forAnnotations(final GitHubClient client, final Publication publication,
+            final FilteredLog log) {
+        var changedLinesOnly = publication.changedLinesOnly();
+        var hasLimits = StringUtils.isNotBlank(publication.maxWarningAnnotations())
+                || StringUtils.isNotBlank(publication.maxCoverageAnnotations());
+        if (!changedLinesOnly && !hasLimits) {
+            return all();
+        }
+        var prNumber = publication.prNumber();
+        if (StringUtils.isBlank(prNumber)) {
+            if (changedLinesOnly) {
+                log.logInfo("No PR_NUMBER defined - creating annotations for all lines");
+            }
+            return all();
+        }
+        try {
+            var pullRequest = client.getPullRequest(client.getRepository(publication.repository()),
+                    Integer.parseInt(prNumber));
+            var changedLines = fromPullRequest(pullRequest, log);
+            return changedLinesOnly ? changedLines : changedLines.withoutFiltering();
+        }
+        catch (IOException exception) {
+            GitHubPublisher.logException(log, exception, "Could not read the changed lines of the pull request");
+
+            return all();
+        }
+    }
+
+    private final boolean containsAll;
+    private final Map<String, NavigableMap<Integer, Integer>> rangesByFile = new HashMap<>();
+    private final Set<String> completelyChangedFiles = new HashSet<>();
+
+    /**
+     * Creates an empty index, the changed lines need to be added using {@link #addPatch(String, String)}.
+     */
+    ChangedLines() {
+        this(false);
+    }
+
+    private ChangedLines(final boolean containsAll) {
+        this.containsAll = containsAll;
+    }
+
+    private ChangedLines(final ChangedLines changedLines) {
+        containsAll = true;
+        rangesByFile.putAll(changedLines.rangesByFile);
+        completelyChangedFiles.addAll(changedLines.completelyChangedFiles);
+    }
+
+    /**
+     * Returns a copy of this index that contains all lines of all files, but still knows the changed files. Use this
+     * copy to rank the annotations without filtering them.
+     *
+     * @return a copy of this index that does not filter lines
+     */
+    ChangedLines withoutFiltering() {
+        return new ChangedLines(this);
+    }
+
+    /**
+     * Adds the changed lines of the specified unified diff. If the patch is empty (GitHub omits the patches of binary
+     * files and very large diffs), then all lines of the file are considered as changed.
+     *
+     * @param path
+     *         the path of the file, relative to the repository root
+     * @param patch
+     *         the hunks of the unified diff of the file
+     */
+    void addPatch(final String path, final String patch) {
+        if (patch.isBlank()) {
+            completelyChangedFiles.add(path);
+
+            return;
+        }
+
+        var ranges = rangesByFile.computeIfAbsent(path, k -> new TreeMap<>());
+        int line = 0;
+        for (String diffLine : patch.split("\n", -1)) {
+            var header = HUNK_HEADER.matcher(diffLine);
+            if (header.matches()) {
+                line = Integer.parseInt(header.group(1));
+            }
+            else if (diffLine.startsWith("+")) {
+                addLine(ranges, line);
+                line++;
+            }
+            else if (diffLine.startsWith(" ")) {
+                line++;
+            }
+            // removed lines ('-') and '\ No newline at end of file' do not exist in the new file
+        }
+    }
+
+    private void addLine(final NavigableMap<Integer, Integer> ranges, final int line) {
+        var last = ranges.lastEntry();
+        if (last != null && last.getValue() == line - 1) {
+            ranges.put(last.getKey(), line);
+        }
+        else {
+            ranges.put(line, line);
+        }
+    }
+
+    /**
+     * Returns whether the specified range of lines contains at least one changed line.
+     *
+     * @param path
+     *         the path of the file, relative to the repository root
+     * @param lineStart
+     *         the first line of the range, 0 if the whole file is referenced
+     * @param lineEnd
+     *         the last line of the range
+     *
+     * @return {@code true} if the range contains at least one changed line, {@code false} otherwise
+     */
+    boolean contains(final String path, final int lineStart, final int lineEnd) {
+        if (containsAll || completelyChangedFiles.contains(path)) {
+            return true;
+        }
+        var ranges = rangesByFile.get(path);
+        if (ranges == null || ranges.isEmpty()) {
+            return false;
+        }
+        if (lineStart <= 0) {
+            return true;
+        }
+        var candidate = ranges.floorEntry(Math.max(lineStart, lineEnd));
+        return candidate != null && candidate.getValue() >= lineStart;
+    }
+
+    /**
+     * Returns whether the specified file has been changed.
+     *
+     * @param path
+     *         the path of the file, relative to the repository root
+     *
+     * @return {@code true} if the file has been changed, {@code false} otherwise
+     */
+    boolean isChangedFile(final String path) {
+        return rangesByFile.containsKey(path) || completelyChangedFiles.contains(path);
+    }
+
+    int getFileCount() {
+        return rangesByFile.size() + completelyChangedFiles.size();
+    }
+
+    int getLineCount() {
+        return rangesByFile.values().stream()
+                .flatMap(ranges -> ranges.entrySet().stream())
+                .mapToInt(range -> range.getValue() - range.getKey() + 1)
+                .sum();
+    }
+}
@@ -0,0 +1,82 @@
+package edu.hm.hafner.grading.github;
+
+import org.apache.commons.lang3.StringUtils;
+
+import edu.hm.hafner.util.FilteredLog;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+
+import org.kohsuke.github.GHCheckRun;
+import org.kohsuke.github.GHRepository;
+
+/**
+ * The digest of the results that are published for a commit. The digest is stored as external ID of the check run
+ * when the check run is created. So a retry (a re-run of a workflow or another attempt to publish an outbox entry)
+ * finds the check run of the previous attempt and does not need to upload the check run and the annotations again.
+ *
+ * @param value
+ *         the SHA-256 digest as hex string
+ * @author Ullrich Hafner
+ */
+record CheckRunDigest(String value) {
+    /**
+     * Creates the digest of the specified values.
+     *
+     * @param values
+     *         the rendered results and all settings that change the published content
+     *
+     * @return the digest
+     */
+    static CheckRunDigest create(final String... values) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256");
+            for (String value : values) {
+                digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return new CheckRunDigest(HexFormat.of().formatHex(digest.digest()));
+        }
+        catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    /**
+     * Finds the check run with this digest that has already been created for the specified commit.
+     *
+     * @param repository
+     *         the repository of the commit
+     * @param sha
+     *         the SHA of the commit
+     * @param checkName
+     *         the name of the check run
+     * @param log
+     *         the logger
+     *
+     * @return the check run with this digest, or an empty optional if there is no such check run
+     */
+    Optional<GHCheckRun> find(final GHRepository repository, final String sha, final String checkName,
+            final FilteredLog log) {
+        try {
+            for (GHCheckRun run : repository.getCheckRuns(sha, Map.of("check_name", checkName))) {
+                if (value.equals(run.getExternalId())) {
+                    log.logInfo("Skipping check, results are unchanged since check " + run.getHtmlUrl());
+
+                    return Optional.of(run);
+                }
+            }
+        }
+        catch (IOException | UncheckedIOException exception) {
+            log.logInfo("Could not read the check runs of %s: %s", sha,
+                    StringUtils.defaultString(exception.getMessage()));
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,220 @@
+package edu.hm.hafner.grading.github;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Strings;
+
+import edu.hm.hafner.util.FilteredLog;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+
+import org.kohsuke.github.GHIssueComment;
+import org.kohsuke.github.GHPullRequest;
+import org.kohsuke.github.PagedIterable;
+
+/**
+ * Locates the comment of a previous run of the action in a pull request. Scanning all comments of a long-lived pull
+ * request requires several paged requests, so the locator uses the following strategies:
+ * <ol>
+ *     <li>If a state file is configured and contains the ID of the previous comment, then only the comments that
+ *     have been created or updated since this comment are queried. The state file is written to the workspace, so it
+ *     must be restored by an {@code actions/cache} step in order to be available in a subsequent workflow run.</li>
+ *     <li>Otherwise, the newest comments are searched first: the GitHub API lists the comments of a pull request only
+ *     in ascending order, so the comments that have been updated in the last day, week, and month are queried one
+ *     after the other. The search stops in the first period that contains the comment. Only if the comment is older,
+ *     then all comments are scanned using the maximum page size. If all comments fit on a single page, then they are
+ *     scanned immediately.</li>
+ * </ol>
+ * If several comments match, then the newest one is used. A comment of this action starts with the marker and has
+ * been created by the user of the token, so comments of other users that just quote or copy the marker are skipped.
+ * The tokens of GitHub Apps (e.g., the {@code GITHUB_TOKEN} of a workflow) have no user: in this case, the comment
+ * must have been created by a bot account.
+ *
+ * @author Ullrich Hafner
+ */
+class CommentLocator {
+    private static final int PAGE_SIZE = 100;
+    private static final String ID = "id";
+    private static final String SINCE = "since";
+    private static final Duration CLOCK_SKEW = Duration.ofMinutes(5);
+    private static final List<Duration> RECENT_PERIODS = List.of(Duration.ofDays(1), Duration.ofDays(7),
+            Duration.ofDays(30));
+    private static final String BOT_SUFFIX = "[bot]";
+
+    private final String marker;
+    private final String stateFile;
+    private final Login login;
+    private final FilteredLog log;
+    private final Instant started = Instant.now();
+
+    /**
+     * Creates a new instance of {@link CommentLocator}.
+     *
+     * @param marker
+     *         the marker that identifies the comments of this action
+     * @param stateFile
+     *         the file that stores the ID of the last comment, an empty string disables the state file
+     * @param login
+     *         provides the login of the user of the token, required only if the comments are searched
+     * @param log
+     *         the logger
+     */
+    CommentLocator(final String marker, final String stateFile, final Login login, final FilteredLog log) {
+        this.marker = marker;
+        this.stateFile = stateFile;
+        this.login = login;
+        this.log = log;
+    }
+
+    /**
+     * Finds the previous comment of this action in the specified pull request.
+     *
+     * @param pullRequest
+     *         the pull request to search in
+     *
+     * @return the previous comment, or an empty optional if there is no such comment
+     * @throws IOException
+     *         if the comments could not be read
+     */
+    Optional<GHIssueComment> find(final GHPullRequest pullRequest) throws IOException {
+        var state = readState();
+        if (state.isPresent()) {
+            var comment = findById(pullRequest, state.get());
+            if (comment.isPresent()) {
+                return comment;
+            }
+            log.logInfo("Previous comment %s not found, scanning all comments", state.get().getProperty(ID));
+        }
+        return search(pullRequest);
+    }
+
+    private Optional<GHIssueComment> findById(final GHPullRequest pullRequest, final Properties state) {
+        try {
+            var id = Long.parseLong(state.getProperty(ID, StringUtils.EMPTY));
+            var since = Long.parseLong(state.getProperty(SINCE, StringUtils.EMPTY));
+
+            for (var comment : pullRequest.queryComments().since(since).list().withPageSize(PAGE_SIZE)) {
+                if (comment.getId() == id) {
+                    return Optional.of(comment);
+                }
+            }
+        }
+        catch (NumberFormatException exception) {
+            log.logError("Ignoring invalid comment state file '%s'", stateFile);
+        }
+        return Optional.empty();
+    }
+
+    private Optional<GHIssueComment> search(final GHPullRequest pullRequest) throws IOException {
+        var author = login.get();
+        if (pullRequest.getCommentsCount() > PAGE_SIZE) {
+            for (Duration period : RECENT_PERIODS) {
+                var since = started.minus(period).toEpochMilli();
+                var comment = findNewest(pullRequest.queryComments().since(since).list(), author);
+                if (comment.isPresent()) {
+                    return comment;
+                }
+            }
+        }
+        return findNewest(pullRequest.listComments(), author);
+    }
+
+    private Optional<GHIssueComment> findNewest(final PagedIterable<GHIssueComment> comments, final String author) {
+        Optional<GHIssueComment> newest = Optional.empty();
+        for (var comment : comments.withPageSize(PAGE_SIZE)) {
+            if (Strings.CS.startsWith(comment.getBody(), marker) && isAuthor(comment, author)) {
+                newest = Optional.of(comment);
+            }
+        }
+        return newest;
+    }
+
+    // getUser() would fetch the complete user with another request, the login is already part of the comment
+    @SuppressWarnings("deprecation")
+    private boolean isAuthor(final GHIssueComment comment, final String author) {
+        var userName = StringUtils.defaultString(comment.getUserName());
+        if (author.isEmpty()) {
+            return userName.endsWith(BOT_SUFFIX);
+        }
+        return author.equals(userName);
+    }
+
+    /**
+     * Stores the ID of the specified comment in the state file so that subsequent runs can locate the comment
+     * without scanning the whole pull request.
+     *
+     * @param comment
+     *         the comment to remember
+     */
+    void remember(final GHIssueComment comment) {
+        if (stateFile.isBlank()) {
+            return;
+        }
+
+        try {
+            var state = new Properties();
+            state.setProperty(ID, String.valueOf(comment.getId()));
+            // the comment has been created or updated after this locator has been created
+            state.setProperty(SINCE, String.valueOf(started.minus(CLOCK_SKEW).toEpochMilli()));
+
+            var path = Path.of(stateFile);
+            var parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+                state.store(writer, "Last comment of the autograding action");
+            }
+        }
+        catch (IOException exception) {
+            log.logError("Could not write comment state file '%s': %s", stateFile,
+                    StringUtils.defaultString(exception.getMessage()));
+        }
+    }
+
+    private Optional<Properties> readState() {
+        if (stateFile.isBlank()) {
+            return Optional.empty();
+        }
+
+        var path = Path.of(stateFile);
+        if (!Files.isReadable(path)) {
+            return Optional.empty();
+        }
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            var state = new Properties();
+            state.load(reader);
+            return Optional.of(state);
+        }
+        catch (IOException | IllegalArgumentException exception) {
+            log.logError("Could not read comment state file '%s': %s", stateFile,
+                    StringUtils.defaultString(exception.getMessage()));
+
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Provides the login of the user that owns the token.
+     */
+    @FunctionalInterface
+    interface Login {
+        /**
+         * Returns the login of the user that owns the token.
+         *
+         * @return the login, or an empty string if the token belongs to a GitHub App
+         * @throws IOException
+         *         if the user could not be fetched
+         */
+        String get() throws IOException;
+    }
+}
@@ -0,0 +1,274 @@
+package edu.hm.hafner.grading.github;
+
+import org.apache.commons.lang3.StringUtils;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+
+import edu.hm.hafner.util.VisibleForTesting;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.kohsuke.github.connector.GitHubConnector;
+import org.kohsuke.github.connector.GitHubConnectorRequest;
+import org.kohsuke.github.connector.GitHubConnectorResponse;
+
+/**
+ * A {@link GitHubConnector} that uses conditional requests for all GET requests. The body and the ETag of each
+ * successful response are cached. Subsequent requests to the same URL send the ETag in an {@code If-None-Match}
+ * header: if GitHub responds with 304 (Not Modified), then the cached body is returned. Such responses do not count
+ * against the rate limit of the token. Requests that modify a resource remove the cached response of that URL. The
+ * cache is bounded: it keeps the most recently used responses only, and large bodies (e.g., pages of comments) are not
+ * cached at all.
+ *
+ * @author Ullrich Hafner
+ */
+class ConditionalRequestConnector implements GitHubConnector {
+    static final String ETAG = "ETag";
+    static final String IF_NONE_MATCH = "If-None-Match";
+
+    private static final int OK = 200;
+    private static final int NOT_MODIFIED = 304;
+    private static final int MAX_ENTRIES = 256;
+    private static final int MAX_BODY_SIZE = 256 * 1024;
+
+    private final GitHubConnector delegate;
+    private final Map<String, CachedResponse> cache;
+    private final Lock lock = new ReentrantLock();
+
+    ConditionalRequestConnector(final GitHubConnector delegate) {
+        this(delegate, MAX_ENTRIES);
+    }
+
+    @VisibleForTesting
+    ConditionalRequestConnector(final GitHubConnector delegate, final int maxEntries) {
+        this.delegate = delegate;
+
+        cache = new LeastRecentlyUsedMap(maxEntries);
+    }
+
+    @Override
+    public GitHubConnectorResponse send(final GitHubConnectorRequest request) throws IOException {
+        var url = request.url().toString();
+        if (!"GET".equals(request.method())) {
+            remove(url);
+
+            return delegate.send(request);
+        }
+
+        var cached = get(url);
+        if (cached == null) {
+            return store(url, delegate.send(request));
+        }
+
+        var response = delegate.send(new ConditionalRequest(request, cached.getEtag()));
+        if (response.statusCode() == NOT_MODIFIED) {
+            response.close();
+
+            return new CachedConnectorResponse(request, cached);
+        }
+        return store(url, response);
+    }
+
+    private GitHubConnectorResponse store(final String url, final GitHubConnectorResponse response)
+            throws IOException {
+        var etag = response.header(ETAG);
+        if (response.statusCode() != OK || StringUtils.isBlank(etag)) {
+            return response;
+        }
+
+        try (response) {
+            var headers = new TreeMap<String, List<String>>(String.CASE_INSENSITIVE_ORDER);
+            response.allHeaders().forEach((key, value) -> {
+                if (key != null) {
+                    headers.put(key, value);
+                }
+            });
+            headers.remove("Content-Encoding"); // the body stream is already decompressed
+
+            var cached = new CachedResponse(etag, headers, response.bodyStream());
+            if (cached.getSize() <= MAX_BODY_SIZE) {
+                put(url, cached);
+            }
+            else {
+                remove(url);
+            }
+
+            return new CachedConnectorResponse(response.request(), cached);
+        }
+    }
+
+    @CheckForNull
+    private CachedResponse get(final String url) {
+        lock.lock();
+        try {
+            return cache.get(url);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private void put(final String url, final CachedResponse response) {
+        lock.lock();
+        try {
+            cache.put(url, response);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private void remove(final String url) {
+        lock.lock();
+        try {
+            cache.remove(url);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return cache.size();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * A map that removes the least recently used entry if the maximum number of entries is exceeded.
+     */
+    private static final class LeastRecentlyUsedMap extends LinkedHashMap<String, CachedResponse> {
+        private static final long serialVersionUID = -2547340478003584431L;
+
+        private final int maxEntries;
+
+        LeastRecentlyUsedMap(final int maxEntries) {
+            super(16, 0.75f, true);
+
+            this.maxEntries = maxEntries;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, CachedResponse> eldest) {
+            return size() > maxEntries;
+        }
+    }
+
+    /**
+     * The ETag, the headers, and the body of a successful response.
+     */
+    private static final class CachedResponse {
+        private final String etag;
+        private final Map<String, List<String>> headers;
+        private final byte[] body;
+
+        CachedResponse(final String etag, final Map<String, List<String>> headers, final InputStream body)
+                throws IOException {
+            this.etag = etag;
+            this.headers = headers;
+            this.body = body.readAllBytes();
+        }
+
+        String getEtag() {
+            return etag;
+        }
+
+        Map<String, List<String>> getHeaders() {
+            return headers;
+        }
+
+        int getSize() {
+            return body.length;
+        }
+
+        InputStream openBody() {
+            return new ByteArrayInputStream(body);
+        }
+    }
+
+    /**
+     * A response that provides the cached body of a previous request.
+     */
+    private static class CachedConnectorResponse extends GitHubConnectorResponse.ByteArrayResponse {
+        private final CachedResponse cached;
+
+        CachedConnectorResponse(final GitHubConnectorRequest request, final CachedResponse cached) {
+            super(request, OK, cached.getHeaders());
+
+            this.cached = cached;
+        }
+
+        @Override
+        protected InputStream rawBodyStream() {
+            return cached.openBody();
+        }
+    }
+
+    /**
+     * Decorates a request with the {@code If-None-Match} header.
+     */
+    private static class ConditionalRequest implements GitHubConnectorRequest {
+        private final GitHubConnectorRequest request;
+        private final Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+        ConditionalRequest(final GitHubConnectorRequest request, final String etag) {
+            this.request = request;
+
+            headers.putAll(request.allHeaders());
+            headers.put(IF_NONE_MATCH, List.of(etag));
+        }
+
+        @Override
+        public String method() {
+            return request.method();
+        }
+
+        @Override
+        public Map<String, List<String>> allHeaders() {
+            return headers;
+        }
+
+        @Override
+        @CheckForNull
+        public String header(final String name) {
+            var values = headers.get(name);
+            if (values == null || values.isEmpty()) {
+                return null;
+            }
+            return String.join(",", values);
+        }
+
+        @Override
+        public String contentType() {
+            return request.contentType();
+        }
+
+        @Override
+        public InputStream body() {
+            return request.body();
+        }
+
+        @Override
+        public URL url() {
+            return request.url();
+        }
+
+        @Override
+        public boolean hasBody() {
+            return request.hasBody();
+        }
+    }
+}
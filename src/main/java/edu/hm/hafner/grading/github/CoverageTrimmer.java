@@ -0,0 +1,67 @@
+package edu.hm.hafner.grading.github;
+
+import edu.hm.hafner.coverage.FileNode;
+import edu.hm.hafner.coverage.Mutation;
+import edu.hm.hafner.coverage.Node;
+import edu.hm.hafner.util.TreeStringBuilder;
+
+/**
+ * Trims the coverage tree of a report file right after the file has been parsed. The complete tree of a report
+ * contains the coverage of every line and all mutations. If the report files of a tool would be merged before
+ * trimming, then the complete trees of all files would be kept in memory. So the tree of each file is replaced by a
+ * trimmed copy that contains only the data that is required for the score and the annotations:
+ *
+ * <ul>
+ *     <li>the values of all nodes (the score and the quality gates are based on these values)</li>
+ *     <li>the counters of lines that have missed instructions or branches (fully covered lines are not annotated)</li>
+ *     <li>the survived mutations (killed mutations are not annotated)</li>
+ * </ul>
+ *
+ * <p>
+ * The relative paths of the files of a tree share their common prefixes. Note that trimmed trees can only be merged
+ * if they do not contain the same files: merging a file recomputes its values from the line counters that have been
+ * removed.
+ * </p>
+ *
+ * @author Ullrich Hafner
+ */
+final class CoverageTrimmer {
+    /**
+     * Returns a trimmed copy of the specified coverage tree.
+     *
+     * @param node
+     *         the root of the tree
+     *
+     * @return the trimmed copy
+     */
+    static Node trim(final Node node) {
+        return trim(node, new TreeStringBuilder());
+    }
+
+    private static Node trim(final Node node, final TreeStringBuilder paths) {
+        var copy = node instanceof FileNode file ? trim(file, paths) : node.copyNode();
+        for (Node child : node.getChildren()) {
+            copy.addChild(trim(child, paths));
+        }
+        return copy;
+    }
+
+    private static FileNode trim(final FileNode file, final TreeStringBuilder paths) {
+        var copy = new FileNode(file.getName(), paths.intern(file.getRelativePath()));
+        file.getValues().forEach(copy::addValue);
+        var isPreviousLineMissed = false;
+        for (int line : file.getLinesWithCoverage()) {
+            var missed = file.getMissedOfLine(line);
+            if (missed > 0 || isPreviousLineMissed) { // a covered line ends a range of missed lines
+                copy.addCounters(line, file.getCoveredOfLine(line), missed);
+            }
+            isPreviousLineMissed = missed > 0;
+        }
+        file.getMutations().stream().filter(Mutation::hasSurvived).forEach(copy::addMutation);
+        return copy;
+    }
+
+    private CoverageTrimmer() {
+        // prevents instantiation
+    }
+}
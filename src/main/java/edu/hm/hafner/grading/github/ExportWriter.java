@@ -0,0 +1,103 @@
+package edu.hm.hafner.grading.github;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Writes a tree of values in a streaming way, e.g., as JSON or in a binary format. The structure of the tree is the
+ * same as in JSON: objects contain named values, arrays contain unnamed values. The values of arrays and the root
+ * object use an empty name.
+ *
+ * @author Ullrich Hafner
+ */
+interface ExportWriter extends Closeable {
+    /**
+     * Starts a new object.
+     *
+     * @param name
+     *         the name of the object, or an empty string if the object is part of an array
+     *
+     * @throws IOException
+     *         if the object could not be written
+     */
+    void startObject(String name) throws IOException;
+
+    /**
+     * Ends the current object.
+     *
+     * @throws IOException
+     *         if the object could not be written
+     */
+    void endObject() throws IOException;
+
+    /**
+     * Starts a new array.
+     *
+     * @param name
+     *         the name of the array, or an empty string if the array is part of an array
+     *
+     * @throws IOException
+     *         if the array could not be written
+     */
+    void startArray(String name) throws IOException;
+
+    /**
+     * Ends the current array.
+     *
+     * @throws IOException
+     *         if the array could not be written
+     */
+    void endArray() throws IOException;
+
+    /**
+     * Writes a text value.
+     *
+     * @param name
+     *         the name of the value, or an empty string if the value is part of an array
+     * @param value
+     *         the value
+     *
+     * @throws IOException
+     *         if the value could not be written
+     */
+    void writeString(String name, String value) throws IOException;
+
+    /**
+     * Writes an integer value.
+     *
+     * @param name
+     *         the name of the value, or an empty string if the value is part of an array
+     * @param value
+     *         the value
+     *
+     * @throws IOException
+     *         if the value could not be written
+     */
+    void writeNumber(String name, long value) throws IOException;
+
+    /**
+     * Writes a floating point value.
+     *
+     * @param name
+     *         the name of the value, or an empty string if the value is part of an array
+     * @param value
+     *         the value
+     *
+     * @throws IOException
+     *         if the value could not be written
+     */
+    void writeNumber(String name, double value) throws IOException;
+
+    /**
+     * Writes a boolean value.
+     *
+     * @param name
+     *         the name of the value, or an empty string if the value is part of an array
+     * @param value
+     *         the value
+     *
+     * @throws IOException
+     *         if the value could not be written
+     */
+    void writeBoolean(String name, boolean value) throws IOException;
+}
@@ -0,0 +1,347 @@
+package edu.hm.hafner.grading.github;
+
+import org.apache.commons.lang3.StringUtils;
+
+import edu.hm.hafner.analysis.ParsingException;
+import edu.hm.hafner.grading.AggregatedScore;
+import edu.hm.hafner.grading.AnalysisConfiguration;
+import edu.hm.hafner.grading.AutoGradingRunner;
+import edu.hm.hafner.grading.CoverageConfiguration;
+import edu.hm.hafner.grading.GradingReport;
+import edu.hm.hafner.grading.LogHandler;
+import edu.hm.hafner.grading.MetricConfiguration;
+import edu.hm.hafner.grading.QualityGate;
+import edu.hm.hafner.grading.QualityGateResult;
+import edu.hm.hafner.grading.QualityGateResult.OverallStatus;
+import edu.hm.hafner.grading.QualityGatesConfiguration;
+import edu.hm.hafner.grading.TestConfiguration;
+import edu.hm.hafner.grading.ToolParser;
+import edu.hm.hafner.util.FilteredLog;
+import edu.hm.hafner.util.SecureXmlParserFactory;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * An {@link AutoGradingRunner} that reads the reports of the configured tools with a {@link ToolParser} that can be
+ * replaced by subclasses. The base class uses a {@link ReportDirectoryToolParser} that searches for the report files
+ * only in the directory that is specified by the environment variable {@code REPORT_DIRECTORY}. The duration of the individual
+ * phases is recorded by a {@link PerformanceRecorder}: the measurements are written as JSON to the file that is
+ * specified by the environment variable {@code PERFORMANCE_REPORT}. If the environment variable
+ * {@code PERFORMANCE_SUMMARY} is set, then the measurements are appended as Markdown table to the step summary of the
+ * GitHub workflow run. The score and the results of the quality gates are exported by a {@link ScoreExporter} to the
+ * files that are specified by the environment variables {@code EXPORT_JSON} and {@code EXPORT_BINARY}.
+ *
+ * @author Ullrich Hafner
+ */
+class ExtensibleAutoGradingRunner extends AutoGradingRunner {
+    private static final String SINGLE_LINE = "-".repeat(80);
+    private static final String DOUBLE_LINE = "=".repeat(80);
+    private static final Path WORKING_DIRECTORY = Path.of(".");
+    private static final String QUALITY_GATES = "QUALITY_GATES";
+
+    private final PrintStream outputStream;
+    private final Map<String, String> environment;
+    private final PerformanceRecorder performance = new PerformanceRecorder();
+
+    /**
+     * Creates a new instance of {@link ExtensibleAutoGradingRunner} that reads its options from the environment
+     * variables of the process.
+     *
+     * @param printStream
+     *         the stream to write the log messages to
+     */
+    ExtensibleAutoGradingRunner(final PrintStream printStream) {
+        this(printStream, System.getenv());
+    }
+
+    /**
+     * Creates a new instance of {@link ExtensibleAutoGradingRunner}.
+     *
+     * @param printStream
+     *         the stream to write the log messages to
+     * @param environment
+     *         the environment variables that contain the options of the action
+     */
+    ExtensibleAutoGradingRunner(final PrintStream printStream, final Map<String, String> environment) {
+        super(printStream);
+
+        outputStream = printStream;
+        this.environment = environment;
+    }
+
+    /**
+     * Runs the autograding. The steps and the log output are the same as in {@link AutoGradingRunner#run()}, but the
+     * reports are read with the parser that is created by {@link #createToolParser(String, FilteredLog)}.
+     *
+     * @return the aggregated score
+     */
+    @Override
+    public AggregatedScore run() {
+        var start = System.nanoTime();
+        var log = new FilteredLog(getDisplayName() + " Errors:");
+        var logHandler = new LogHandler(outputStream, log);
+
+        logSection("Start", log);
+
+        var configuration = performance.measure("configuration",
+                () -> relocateReports(readConfiguration(log), log));
+        var score = new AggregatedScore(log);
+        logHandler.print();
+        try {
+            var parser = createToolParser(configuration, log);
+
+            grade("grading: tests", s -> s.gradeTests(parser, TestConfiguration.from(configuration)),
+                    score, logHandler, log);
+            grade("grading: coverage", s -> s.gradeCoverage(parser, CoverageConfiguration.from(configuration)),
+                    score, logHandler, log);
+            grade("grading: analysis", s -> s.gradeAnalysis(parser, AnalysisConfiguration.from(configuration)),
+                    score, logHandler, log);
+            grade("grading: metrics", s -> s.gradeMetrics(parser, MetricConfiguration.from(configuration)),
+                    score, logHandler, log);
+            log.logInfo(DOUBLE_LINE);
+            log.logInfo(new GradingReport().getTextSummary(score));
+            log.logInfo(DOUBLE_LINE);
+            logHandler.print();
+
+            logSection("Evaluate Quality Gates", log);
+            var qualityGateResult = performance.measure("quality gates", () -> QualityGateResult.evaluate(
+                    score.getMetrics(), parseQualityGates(log), log));
+            logHandler.print();
+
+            performance.run("export", () -> new ScoreExporter(score, qualityGateResult).export(
+                    getEnv("EXPORT_JSON", log), getEnv("EXPORT_BINARY", log), log));
+            logHandler.print();
+
+            logSection("Publish Results", log);
+            performance.run("publishing", () -> publishGradingResult(score, qualityGateResult, log));
+            logHandler.print();
+
+            if (failOnQualityGate()) {
+                handleFailedQualityGates(qualityGateResult, log);
+            }
+        }
+        catch (IllegalArgumentException | ParsingException | SecureXmlParserFactory.ParsingException exception) {
+            log.logInfo(DOUBLE_LINE);
+            log.logException(exception, "An error occurred while grading");
+            log.logInfo(DOUBLE_LINE);
+
+            publishError(score, log, exception);
+        }
+        finally {
+            performance.record("total", System.nanoTime() - start);
+            writePerformanceReport(log);
+            logHandler.print();
+            logSection("End", log);
+            logHandler.print();
+        }
+        return score;
+    }
+
+    /**
+     * Creates the parser that reads the reports of all configured tools.
+     *
+     * @param configuration
+     *         the autograding configuration
+     * @param log
+     *         the logger
+     *
+     * @return the parser
+     */
+    protected ToolParser createToolParser(final String configuration, final FilteredLog log) {
+        return new TimingToolParser(new ReportDirectoryToolParser(getReportDirectory()), performance);
+    }
+
+    /**
+     * Returns the directory that contains the report files of the tools. This is the directory that is specified by
+     * the environment variable {@code REPORT_DIRECTORY}, or the working directory if this variable is not set or
+     * invalid.
+     *
+     * @return the report directory, relative to the working directory
+     */
+    protected Path getReportDirectory() {
+        var directory = getEnvironment("REPORT_DIRECTORY");
+        if (StringUtils.isBlank(directory)) {
+            return WORKING_DIRECTORY;
+        }
+        try {
+            return ReportPatterns.resolve(directory);
+        }
+        catch (IllegalArgumentException exception) {
+            return WORKING_DIRECTORY; // the patterns have not been relocated, the error has been logged already
+        }
+    }
+
+    /**
+     * Returns the recorder for the duration of the individual phases.
+     *
+     * @return the performance recorder
+     */
+    protected PerformanceRecorder getPerformance() {
+        return performance;
+    }
+
+    /**
+     * Returns the stream to write the log messages to.
+     *
+     * @return the print stream
+     */
+    protected PrintStream getPrintStream() {
+        return outputStream;
+    }
+
+    /**
+     * Returns all environment variables that contain the options of the action.
+     *
+     * @return the environment variables
+     */
+    protected Map<String, String> getEnvironmentVariables() {
+        return environment;
+    }
+
+    /**
+     * Returns the value of the specified environment variable and logs it.
+     *
+     * @param key
+     *         the name of the environment variable
+     * @param log
+     *         the logger
+     *
+     * @return the value of the environment variable or an empty string if the variable is not set
+     */
+    protected String getEnv(final String key, final FilteredLog log) {
+        String value = getEnvironment(key);
+        log.logInfo(">>>> " + key + ": " + value);
+        return value;
+    }
+
+    /**
+     * Returns the value of the specified environment variable.
+     *
+     * @param key
+     *         the name of the environment variable
+     *
+     * @return the value of the environment variable or an empty string if the variable is not set
+     */
+    protected String getEnvironment(final String key) {
+        return StringUtils.defaultString(environment.get(key));
+    }
+
+    // grading steps that use the parser are measured including the time to read the reports
+    private void grade(final String phase, final Consumer<AggregatedScore> step, final AggregatedScore score,
+            final LogHandler logHandler, final FilteredLog log) {
+        log.logInfo(DOUBLE_LINE);
+        performance.run(phase, () -> step.accept(score));
+        logHandler.print();
+    }
+
+    private void writePerformanceReport(final FilteredLog log) {
+        var report = getEnv("PERFORMANCE_REPORT", log);
+        if (StringUtils.isNotBlank(report)) {
+            try {
+                Files.writeString(Path.of(report), performance.toJson(), StandardCharsets.UTF_8);
+                log.logInfo("Wrote performance report to '%s'", report);
+            }
+            catch (IOException exception) {
+                log.logError("Could not write performance report to '%s': %s", report,
+                        StringUtils.defaultString(exception.getMessage()));
+            }
+        }
+        if (StringUtils.isNotBlank(getEnv("PERFORMANCE_SUMMARY", log))) {
+            new StepOutputWriter(getEnv("GITHUB_STEP_SUMMARY", log), StringUtils.EMPTY, log).appendSummary(
+                    "\n### Performance of " + getDisplayName() + "\n\n" + performance.toMarkdown());
+        }
+    }
+
+    private void logSection(final String title, final FilteredLog log) {
+        log.logInfo(SINGLE_LINE);
+        log.logInfo(StringUtils.center("%s %s %s (#%s)".formatted(
+                title, getDisplayName(), readVersion(log), readSha(log)), SINGLE_LINE.length()));
+        log.logInfo(SINGLE_LINE);
+    }
+
+    private String readConfiguration(final FilteredLog log) {
+        var configuration = getEnvironment("CONFIG");
+        if (StringUtils.isNotBlank(configuration)) {
+            log.logInfo("Obtaining configuration from environment variable CONFIG");
+
+            return configuration;
+        }
+
+        log.logInfo("No configuration provided (environment variable CONFIG not set), using default configuration");
+        try (var stream = AutoGradingRunner.class.getResourceAsStream(getDefaultConfigurationPath())) {
+            if (stream == null) {
+                throw new IllegalStateException("Can't find configuration in class path: "
+                        + getDefaultConfigurationPath());
+            }
+            return new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        catch (IOException exception) {
+            throw new IllegalStateException("Can't read default configuration: " + getDefaultConfigurationPath(),
+                    exception);
+        }
+    }
+
+    // the patterns are matched against the paths relative to the working directory, so they are relocated as well
+    private String relocateReports(final String configuration, final FilteredLog log) {
+        var directory = getEnv("REPORT_DIRECTORY", log);
+        if (StringUtils.isBlank(directory)) {
+            return configuration;
+        }
+        try {
+            log.logInfo("Searching for report files in '%s'", directory);
+
+            return ReportPatterns.relocate(configuration, directory);
+        }
+        catch (IllegalArgumentException exception) {
+            log.logError("Can't search for report files in '%s': %s", directory,
+                    StringUtils.defaultString(exception.getMessage()));
+
+            return configuration;
+        }
+    }
+
+    // same as QualityGatesConfiguration.parseFromEnvironment, but reads the environment variables of this runner
+    private List<QualityGate> parseQualityGates(final FilteredLog log) {
+        var json = getEnvironment(QUALITY_GATES);
+        if (StringUtils.isBlank(json)) {
+            log.logInfo("Environment variable '%s' not found or empty", QUALITY_GATES);
+
+            return List.of();
+        }
+        log.logInfo("Found quality gates configuration in environment variable '%s'", QUALITY_GATES);
+        try {
+            var qualityGates = QualityGatesConfiguration.from(json);
+            log.logInfo("Parsed %d quality gate(s) from JSON configuration", qualityGates.size());
+
+            return qualityGates;
+        }
+        catch (IllegalArgumentException exception) {
+            log.logException(exception, "Error parsing quality gates JSON configuration");
+
+            return List.of();
+        }
+    }
+
+    private void handleFailedQualityGates(final QualityGateResult qualityGateResult, final FilteredLog log) {
+        if (qualityGateResult.getOverallStatus() != OverallStatus.SUCCESS) {
+            failAction("Quality gates failed, failing the action", log);
+        }
+        if (log.hasErrors()) {
+            failAction("Autograding finished with some errors in the log, failing the action", log);
+        }
+    }
+
+    private void failAction(final String message, final FilteredLog log) {
+        log.logInfo(SINGLE_LINE);
+        log.logInfo(message);
+
+        throw new IllegalStateException(message);
+    }
+}
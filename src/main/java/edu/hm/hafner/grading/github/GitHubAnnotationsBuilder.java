@@ -2,56 +2,161 @@ package edu.hm.hafner.grading.github;
 
 import org.apache.commons.lang3.StringUtils;
 
+import edu.hm.hafner.analysis.Issue;
+import edu.hm.hafner.analysis.Severity;
+import edu.hm.hafner.grading.AggregatedScore;
 import edu.hm.hafner.grading.CommentBuilder;
 import edu.hm.hafner.util.FilteredLog;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
 import org.kohsuke.github.GHCheckRun.AnnotationLevel;
 import org.kohsuke.github.GHCheckRunBuilder.Annotation;
-import org.kohsuke.github.GHCheckRunBuilder.Output;
 
 /**
  * Creates GitHub annotations for static analysis warnings, for lines with missing coverage, and for lines with
- * survived mutations.
+ * survived mutations. Before an annotation is passed to the consumer, the following reductions are applied:
+ * <ul>
+ *     <li>If the changed lines of a pull request are given, then annotations outside these lines are skipped.</li>
+ *     <li>Adjacent or overlapping ranges of missed lines in the same file are coalesced into a single annotation.</li>
+ *     <li>Duplicate annotations (same type, path, lines, and message) are removed. This happens if several tools
+ *     report the same problem at the same location. In order to keep the memory bounded, only the most recent
+ *     annotations are compared.</li>
+ * </ul>
+ * The limits for warning and coverage annotations are applied to the remaining annotations. If a limit is set, then
+ * the most important annotations are selected (see {@link AnnotationBudget}): warnings are ranked by severity, then
+ * by whether they are part of a file changed in the pull request, and finally by the order of the tools in the
+ * configuration. Coverage annotations are ranked by whether they are part of a changed file. Annotations with the
+ * same rank are selected in the order of the reports. Without limits, the annotations are not ranked at all.
+ *
+ * <p>
+ * If the annotations are queued in an {@link Outbox}, then the changed lines and the limits are applied later by an
+ * {@link AnnotationSelector} when the outbox is drained. In this deferred mode, the annotations of all lines are
+ * passed as {@link RankedAnnotation} to the consumer, their priorities do not contain the changed files yet.
+ * </p>
  *
  * @author Ullrich Hafner
  */
 class GitHubAnnotationsBuilder extends CommentBuilder {
     private static final String GITHUB_WORKSPACE_REL = "/github/workspace/./";
     private static final String GITHUB_WORKSPACE_ABS = "/github/workspace/";
+    private static final String NOT_COVERED_LINES = "Not covered lines";
+    private static final int MAX_RECENT_ANNOTATIONS = 10_000;
+
+    private static final int SEVERITY_SHIFT = 40;
+    private static final int CHANGED_FILE_SHIFT = 39;
+    private static final int MAX_TOOL_RANK = 0xFFFF;
+    private static final int NORMAL_SEVERITY = 1;
 
-    private final Output output;
+    private final ChangedLines changedLines;
     private final FilteredLog log;
-    private final int maxWarningComments;
-    private final int maxCoverageComments;
+    private final AnnotationBudget warningBudget;
+    private final AnnotationBudget coverageBudget;
+    private final boolean isRankingWarnings;
+    private final boolean isRankingCoverage;
+    private final Optional<Consumer<RankedAnnotation>> deferredAnnotations;
 
-    GitHubAnnotationsBuilder(final Output output, final String prefix, final FilteredLog log) {
-        super(prefix, GITHUB_WORKSPACE_REL, GITHUB_WORKSPACE_ABS);
+    private final Set<AnnotationKey> createdAnnotations = Collections.newSetFromMap(new RecentAnnotations());
+    private final Map<String, Integer> toolRanks = new HashMap<>();
+    private Map<IssueKey, List<Issue>> issuesByLocation = Map.of();
+    private Optional<MissedLines> pendingMissedLines = Optional.empty();
+    private int coalescedAnnotations;
+    private int duplicateAnnotations;
+    private int unchangedAnnotations;
 
-        this.output = output;
-        this.log = log;
+    GitHubAnnotationsBuilder(final Consumer<Annotation> annotations, final String prefix, final FilteredLog log) {
+        this(annotations, prefix, log, ChangedLines.all());
+    }
 
-        maxWarningComments = getIntegerEnvironment("MAX_WARNING_ANNOTATIONS");
-        maxCoverageComments = getIntegerEnvironment("MAX_COVERAGE_ANNOTATIONS");
+    GitHubAnnotationsBuilder(final Consumer<Annotation> annotations, final String prefix, final FilteredLog log,
+            final ChangedLines changedLines) {
+        this(annotations, prefix, log, changedLines, StringUtils.EMPTY, StringUtils.EMPTY);
     }
 
-    @Override
-    protected final int getMaxWarningComments() {
-        return maxWarningComments;
+    /**
+     * Creates a new annotations builder.
+     *
+     * @param annotations
+     *         the consumer of the created annotations
+     * @param prefix
+     *         the absolute path prefix to remove from the file names
+     * @param log
+     *         the logger
+     * @param changedLines
+     *         the changed lines of the pull request
+     * @param maxWarningAnnotations
+     *         the maximum number of warning annotations (value of {@code MAX_WARNING_ANNOTATIONS}), unlimited if
+     *         empty
+     * @param maxCoverageAnnotations
+     *         the maximum number of coverage annotations (value of {@code MAX_COVERAGE_ANNOTATIONS}), unlimited if
+     *         empty
+     */
+    GitHubAnnotationsBuilder(final Consumer<Annotation> annotations, final String prefix, final FilteredLog log,
+            final ChangedLines changedLines, final String maxWarningAnnotations, final String maxCoverageAnnotations) {
+        this(annotations, prefix, log, changedLines, maxWarningAnnotations, maxCoverageAnnotations, Optional.empty());
     }
 
-    @Override
-    protected final int getMaxCoverageComments() {
-        return maxCoverageComments;
+    /**
+     * Creates a new annotations builder that defers the filtering of the changed lines and the limits to an
+     * {@link AnnotationSelector}.
+     *
+     * @param annotations
+     *         the consumer of the created annotations
+     * @param prefix
+     *         the absolute path prefix to remove from the file names
+     * @param log
+     *         the logger
+     * @param maxWarningAnnotations
+     *         the maximum number of warning annotations (value of {@code MAX_WARNING_ANNOTATIONS}), the warnings are
+     *         ranked only if a limit is set
+     * @param maxCoverageAnnotations
+     *         the maximum number of coverage annotations (value of {@code MAX_COVERAGE_ANNOTATIONS}), the coverage
+     *         annotations are ranked only if a limit is set
+     */
+    GitHubAnnotationsBuilder(final Consumer<RankedAnnotation> annotations, final String prefix, final FilteredLog log,
+            final String maxWarningAnnotations, final String maxCoverageAnnotations) {
+        this(annotation -> { }, prefix, log, ChangedLines.all(), maxWarningAnnotations, maxCoverageAnnotations,
+                Optional.of(annotations));
+    }
+
+    @SuppressWarnings("checkstyle:ParameterNumber")
+    private GitHubAnnotationsBuilder(final Consumer<Annotation> annotations, final String prefix, final FilteredLog log,
+            final ChangedLines changedLines, final String maxWarningAnnotations, final String maxCoverageAnnotations,
+            final Optional<Consumer<RankedAnnotation>> deferredAnnotations) {
+        super(prefix, GITHUB_WORKSPACE_REL, GITHUB_WORKSPACE_ABS);
+
+        this.changedLines = changedLines;
+        this.log = log;
+        this.deferredAnnotations = deferredAnnotations;
+
+        var maxWarnings = parseLimit("MAX_WARNING_ANNOTATIONS", maxWarningAnnotations);
+        var maxCoverage = parseLimit("MAX_COVERAGE_ANNOTATIONS", maxCoverageAnnotations);
+        isRankingWarnings = maxWarnings != Integer.MAX_VALUE;
+        isRankingCoverage = maxCoverage != Integer.MAX_VALUE;
+
+        // deferred annotations are selected when the outbox is drained
+        var isDeferred = deferredAnnotations.isPresent();
+        warningBudget = new AnnotationBudget(isDeferred ? Integer.MAX_VALUE : maxWarnings, annotations);
+        coverageBudget = new AnnotationBudget(isDeferred ? Integer.MAX_VALUE : maxCoverage, annotations);
     }
 
-    private int getIntegerEnvironment(final String key) {
-        var value = getIntegerEnvironmentWithDefault(key);
-        log.logInfo(">>>> %s: %d", key, value);
-        return value;
+    private int parseLimit(final String key, final String value) {
+        var limit = parseLimitWithDefault(key, value);
+        log.logInfo(">>>> %s: %d", key, limit);
+        return limit;
     }
 
-    private int getIntegerEnvironmentWithDefault(final String key) {
-        var value = getEnv(key);
+    private int parseLimitWithDefault(final String key, final String value) {
         try {
             return Integer.parseInt(value);
         }
@@ -67,8 +172,31 @@ class GitHubAnnotationsBuilder extends CommentBuilder {
         }
     }
 
-    private String getEnv(final String name) {
-        return StringUtils.defaultString(System.getenv(name));
+    @Override
+    public void createAnnotations(final AggregatedScore score) {
+        if (isRankingWarnings) {
+            // the comments of the super class contain no severity and origin, so the issues are looked up by location
+            issuesByLocation = score.getIssues().stream().collect(
+                    Collectors.groupingBy(IssueKey::from, Collectors.toCollection(ArrayList::new)));
+        }
+
+        super.createAnnotations(score);
+
+        flushMissedLines();
+        warningBudget.flush();
+        coverageBudget.flush();
+
+        if (coalescedAnnotations > 0 || duplicateAnnotations > 0) {
+            log.logInfo("Coalesced %d annotations of missed lines and skipped %d duplicate annotations",
+                    coalescedAnnotations, duplicateAnnotations);
+        }
+        if (unchangedAnnotations > 0) {
+            log.logInfo("Skipped %d annotations outside the changed lines", unchangedAnnotations);
+        }
+        if (warningBudget.getDiscarded() > 0 || coverageBudget.getDiscarded() > 0) {
+            log.logInfo("Skipped %d warning and %d coverage annotations with lower priority due to the limits",
+                    warningBudget.getDiscarded(), coverageBudget.getDiscarded());
+        }
     }
 
     @Override
@@ -78,6 +206,124 @@ class GitHubAnnotationsBuilder extends CommentBuilder {
             final String message, final String title,
             final int columnStart, final int columnEnd,
             final String details, final String markDownDetails) {
+        if (!changedLines.contains(relativePath, lineStart, lineEnd)) {
+            unchangedAnnotations++;
+
+            return;
+        }
+        if (commentType == CommentType.NO_COVERAGE && lineStart > 0) {
+            var adjacent = pendingMissedLines.filter(pending -> pending.isAdjacent(relativePath, lineStart));
+            if (adjacent.isPresent()) {
+                pendingMissedLines = Optional.of(adjacent.get().extend(lineEnd));
+                coalescedAnnotations++;
+            }
+            else {
+                flushMissedLines();
+                pendingMissedLines = Optional.of(new MissedLines(relativePath, lineStart, lineEnd, message, title,
+                        columnStart, columnEnd, false));
+            }
+        }
+        else {
+            flushMissedLines();
+            var priority = commentType == CommentType.WARNING
+                    ? getWarningPriority(relativePath, lineStart, lineEnd, message, title)
+                    : getCoveragePriority(relativePath);
+            createUniqueAnnotation(commentType, priority, relativePath, lineStart, lineEnd, message, title,
+                    columnStart, columnEnd, details);
+        }
+    }
+
+    private void flushMissedLines() {
+        if (pendingMissedLines.isPresent()) {
+            var missedLines = pendingMissedLines.get();
+            pendingMissedLines = Optional.empty();
+
+            createUniqueAnnotation(CommentType.NO_COVERAGE, getCoveragePriority(missedLines.path()),
+                    missedLines.path(), missedLines.start(), missedLines.end(),
+                    missedLines.getMessage(), missedLines.getTitle(), missedLines.columnStart(),
+                    missedLines.columnEnd(), StringUtils.EMPTY);
+        }
+    }
+
+    private long getWarningPriority(final String relativePath, final int lineStart, final int lineEnd,
+            final String message, final String title) {
+        if (!isRankingWarnings) {
+            return 0L;
+        }
+        var severity = NORMAL_SEVERITY;
+        var toolRank = MAX_TOOL_RANK;
+        var issue = findIssue(relativePath, new IssueKey(lineStart, lineEnd, message), title);
+        if (issue.isPresent()) {
+            severity = getSeverityRank(issue.get().getSeverity());
+            toolRank = Math.min(toolRanks.computeIfAbsent(issue.get().getOriginName(), k -> toolRanks.size()),
+                    MAX_TOOL_RANK);
+        }
+        return ((long) severity << SEVERITY_SHIFT) | getChangedFilePriority(changedLines, relativePath)
+                | (MAX_TOOL_RANK - toolRank);
+    }
+
+    // the relative path is a suffix of the file name, and the title contains the name of the tool
+    private Optional<Issue> findIssue(final String relativePath, final IssueKey key, final String title) {
+        var candidates = issuesByLocation.getOrDefault(key, List.of());
+        var issue = candidates.stream()
+                .filter(candidate -> candidate.getFileName().endsWith(relativePath))
+                .filter(candidate -> title.contains(candidate.getOriginName()))
+                .findFirst();
+        issue.ifPresent(candidates::remove); // the same location might be reported by another tool
+        return issue;
+    }
+
+    private int getSeverityRank(final Severity severity) {
+        if (Severity.ERROR.equals(severity)) {
+            return 3;
+        }
+        if (Severity.WARNING_HIGH.equals(severity)) {
+            return 2;
+        }
+        if (Severity.WARNING_LOW.equals(severity)) {
+            return 0;
+        }
+        return NORMAL_SEVERITY;
+    }
+
+    private long getCoveragePriority(final String relativePath) {
+        if (!isRankingCoverage) {
+            return 0L;
+        }
+        return getChangedFilePriority(changedLines, relativePath);
+    }
+
+    /**
+     * Returns the part of the priority of an annotation that prefers the files that have been changed in the pull
+     * request.
+     *
+     * @param changedLines
+     *         the changed lines of the pull request
+     * @param relativePath
+     *         the path of the annotated file
+     *
+     * @return the priority of the file
+     */
+    static long getChangedFilePriority(final ChangedLines changedLines, final String relativePath) {
+        return changedLines.isChangedFile(relativePath) ? 1L << CHANGED_FILE_SHIFT : 0L;
+    }
+
+    @SuppressWarnings("checkstyle:ParameterNumber")
+    private void createUniqueAnnotation(final CommentType commentType, final long priority,
+            final String relativePath, final int lineStart, final int lineEnd, final String message,
+            final String title, final int columnStart, final int columnEnd, final String details) {
+        if (!createdAnnotations.add(new AnnotationKey(commentType, relativePath, lineStart, lineEnd, message))) {
+            duplicateAnnotations++;
+
+            return;
+        }
+        var budget = commentType == CommentType.WARNING ? warningBudget : coverageBudget;
+        if (!budget.accepts(priority)) {
+            budget.discard();
+
+            return;
+        }
+
         // GitHub annotations are 1-based, so we have to adjust the line numbers if some tools annotate the whole file
         int actualLineStart;
         int actualLineEnd;
@@ -99,6 +345,65 @@ class GitHubAnnotationsBuilder extends CommentBuilder {
             annotation.withRawDetails(details);
         }
 
-        output.add(annotation);
+        if (deferredAnnotations.isPresent()) {
+            deferredAnnotations.get().accept(new RankedAnnotation(annotation, relativePath, lineStart, lineEnd,
+                    commentType == CommentType.WARNING, priority));
+        }
+        else {
+            budget.offer(priority, annotation);
+        }
+    }
+
+    private record IssueKey(int lineStart, int lineEnd, String message) {
+        static IssueKey from(final Issue issue) {
+            return new IssueKey(issue.getLineStart(), issue.getLineEnd(), issue.getMessage());
+        }
+    }
+
+    private record AnnotationKey(CommentType type, String path, int lineStart, int lineEnd, String message) {
+    }
+
+    // a range of missed lines that might be extended by the following range of the same file
+    private record MissedLines(String path, int start, int end, String message, String title,
+                               int columnStart, int columnEnd, boolean isCoalesced) {
+        boolean isAdjacent(final String otherPath, final int otherStart) {
+            return path.equals(otherPath) && otherStart >= start && otherStart <= end + 1;
+        }
+
+        MissedLines extend(final int otherEnd) {
+            return new MissedLines(path, start, Math.max(end, otherEnd), message, title, columnStart, columnEnd,
+                    true);
+        }
+
+        // the texts of the first range describe only a part of a coalesced range
+        String getMessage() {
+            if (isCoalesced && start != end) {
+                return String.format(Locale.ENGLISH, "Lines %d-%d are not covered by tests", start, end);
+            }
+            return message;
+        }
+
+        String getTitle() {
+            if (isCoalesced && start != end) {
+                return NOT_COVERED_LINES;
+            }
+            return title;
+        }
+    }
+
+    /**
+     * Remembers the keys of the most recently created annotations.
+     */
+    private static final class RecentAnnotations extends LinkedHashMap<AnnotationKey, Boolean> {
+        private static final long serialVersionUID = 3405227853725938412L;
+
+        RecentAnnotations() {
+            super(16, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<AnnotationKey, Boolean> eldest) {
+            return size() > MAX_RECENT_ANNOTATIONS;
+        }
     }
 }
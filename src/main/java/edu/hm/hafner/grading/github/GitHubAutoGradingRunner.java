@@ -1,33 +1,25 @@
 package edu.hm.hafner.grading.github;
 
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.Strings;
 
-import edu.hm.hafner.analysis.registry.ParserRegistry;
 import edu.hm.hafner.coverage.Metric;
 import edu.hm.hafner.grading.AggregatedScore;
-import edu.hm.hafner.grading.AutoGradingRunner;
 import edu.hm.hafner.grading.GradingReport;
 import edu.hm.hafner.grading.QualityGateResult;
+import edu.hm.hafner.grading.ToolParser;
 import edu.hm.hafner.util.FilteredLog;
 import edu.hm.hafner.util.VisibleForTesting;
 
 import java.io.IOException;
 import java.io.PrintStream;
-import java.time.Instant;
-import java.util.Date;
+import java.nio.file.Path;
 import java.util.Locale;
-import java.util.Optional;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
-import org.kohsuke.github.GHCheckRun;
 import org.kohsuke.github.GHCheckRun.Conclusion;
-import org.kohsuke.github.GHCheckRun.Status;
-import org.kohsuke.github.GHCheckRunBuilder;
-import org.kohsuke.github.GHCheckRunBuilder.Output;
-import org.kohsuke.github.GHIssueComment;
-import org.kohsuke.github.GitHub;
-import org.kohsuke.github.GitHubBuilder;
-import org.kohsuke.github.HttpException;
+import org.kohsuke.github.GHCheckRunBuilder.Annotation;
 
 /**
  * GitHub action entrypoint for the autograding action.
@@ -35,28 +27,30 @@ import org.kohsuke.github.HttpException;
  * @author Tobias Effner
  * @author Ullrich Hafner
  */
-public class GitHubAutoGradingRunner extends AutoGradingRunner {
-    private static final String COMMENT_MARKER = "<!-- -[quality-monitor-comment]- -->";
-    private static final ParserRegistry PARSER_REGISTRY = new ParserRegistry();
+public class GitHubAutoGradingRunner extends ExtensibleAutoGradingRunner {
     private static final String AUTOGRADING_ACTION = "GitHub Autograding Action";
     private static final String NO_TITLE = "none";
     private static final String DEFAULT_TITLE_METRIC = "line";
 
     /**
-     * Public entry point for the GitHub action in the docker container, simply calls the action.
+     * Public entry point for the GitHub action in the docker container, simply calls the action. If the path to a
+     * manifest is given, then all repositories of the manifest are graded in this process (see
+     * {@link GitHubBatchRunner}). If the environment variable {@code OUTBOX_DRAIN} is set, then the results that have
+     * been queued in the outbox are published (see {@link OutboxRunner}).
      *
-     * @param unused
-     *         not used
+     * @param arguments
+     *         the optional path to a manifest of repositories
      */
-    public static void main(final String... unused) {
-        new GitHubAutoGradingRunner().run();
+    public static void main(final String... arguments) {
+        new GitHubAutoGradingRunner().dispatch(arguments);
     }
 
     /**
      * Creates a new instance of {@link GitHubAutoGradingRunner}.
      */
+    @SuppressWarnings("SystemOut") // the log of the action is shown in the console of the workflow run
     public GitHubAutoGradingRunner() {
-        super();
+        this(System.out);
     }
 
     @VisibleForTesting
@@ -64,11 +58,63 @@ public class GitHubAutoGradingRunner extends AutoGradingRunner {
         super(printStream);
     }
 
+    /**
+     * Creates a new instance of {@link GitHubAutoGradingRunner} that reads its options from the specified environment
+     * variables.
+     *
+     * @param printStream
+     *         the stream to write the log messages to
+     * @param environment
+     *         the environment variables that contain the options of the action
+     */
+    GitHubAutoGradingRunner(final PrintStream printStream, final Map<String, String> environment) {
+        super(printStream, environment);
+    }
+
+    // the batch and outbox runners write to the same stream and read the same environment as this runner
+    private void dispatch(final String... arguments) {
+        if (arguments.length > 0) {
+            var batch = new GitHubBatchRunner(getPrintStream(), getEnvironmentVariables());
+            var failures = batch.run(Path.of(arguments[0]));
+            if (!failures.isEmpty()) {
+                throw new IllegalStateException("Grading failed for repositories " + failures);
+            }
+        }
+        else if (StringUtils.isNotBlank(getEnvironment("OUTBOX_DRAIN"))) {
+            new OutboxRunner(getPrintStream(), getEnvironmentVariables()).run();
+        }
+        else {
+            run();
+        }
+    }
+
     @Override
     protected String getDisplayName() {
         return AUTOGRADING_ACTION;
     }
 
+    /**
+     * Creates the parser that reads the reports of all configured tools. If the environment variable
+     * {@code LOW_MEMORY} is set, then only the data that is required for the score and the annotations is kept from
+     * the coverage reports, and the reports are read sequentially. If the environment variable
+     * {@code REPORT_CACHE_DIR} is set, then the results of unchanged reports are read from this cache directory. If
+     * the environment variable {@code PARALLELISM} is set to a value greater than one, then the reports of the
+     * different tools and the report files of each tool are read in parallel.
+     *
+     * @param configuration
+     *         the autograding configuration
+     * @param log
+     *         the logger
+     *
+     * @return the parser
+     */
+    @Override
+    protected ToolParser createToolParser(final String configuration, final FilteredLog log) {
+        var factory = new ToolParserFactory(getReportDirectory(), StringUtils.isNotBlank(getEnv("LOW_MEMORY", log)),
+                getEnv("REPORT_CACHE_DIR", log), getEnv("PARALLELISM", log), readVersion(log) + "-" + readSha(log));
+        return factory.create(configuration, getPerformance(), log);
+    }
+
     @Override
     protected void publishGradingResult(final AggregatedScore score, final QualityGateResult qualityGateResult,
             final FilteredLog log) {
@@ -77,11 +123,17 @@ public class GitHubAutoGradingRunner extends AutoGradingRunner {
         var qualityGateDetails = qualityGateResult.createMarkdownSummary();
         var showHeaders = StringUtils.isNotBlank(getEnv("SHOW_HEADERS", log));
         var results = new GradingReport();
-        addComment(score,
-                results.getTextSummary(score, getChecksName()),
-                results.getMarkdownDetails(score, getChecksName()) + errors + qualityGateDetails,
-                results.getSubScoreDetails(score).toString() + errors + qualityGateDetails,
-                results.getMarkdownSummary(score, getChecksName(), showHeaders) + errors + qualityGateDetails,
+        var performance = getPerformance();
+        var textSummary = performance.measure("rendering", () -> results.getTextSummary(score, getChecksName()));
+        var markdownDetails = performance.measure("rendering",
+                () -> results.getMarkdownDetails(score, getChecksName()));
+        var subScoreDetails = performance.measure("rendering", () -> results.getSubScoreDetails(score).toString());
+        var markdownSummary = performance.measure("rendering",
+                () -> results.getMarkdownSummary(score, getChecksName(), showHeaders));
+        publish(score, textSummary,
+                markdownDetails + errors + qualityGateDetails,
+                subScoreDetails + errors + qualityGateDetails,
+                markdownSummary + errors + qualityGateDetails,
                 conclusion, log);
 
         log.logInfo("GitHub Action has finished");
@@ -92,10 +144,25 @@ public class GitHubAutoGradingRunner extends AutoGradingRunner {
         var results = new GradingReport();
 
         var markdownErrors = results.getMarkdownErrors(score, exception);
-        addComment(score, results.getTextSummary(score, getChecksName()),
+        publish(score, results.getTextSummary(score, getChecksName()),
                 markdownErrors, markdownErrors, markdownErrors, Conclusion.FAILURE, log);
     }
 
+    // the output mode determines whether the results are written to the workflow step and/or published via the API
+    private void publish(final AggregatedScore score, final String textSummary,
+            final String markdownDetails, final String subScoreDetails, final String markdownSummary,
+            final Conclusion conclusion, final FilteredLog log) {
+        var outputMode = OutputMode.fromName(getEnv("OUTPUT_MODE", log), log);
+        if (outputMode.usesStep()) {
+            var writer = new StepOutputWriter(getEnv("GITHUB_STEP_SUMMARY", log), getEnv("GITHUB_OUTPUT", log), log);
+            writer.appendSummary(markdownDetails);
+            writer.appendOutputs(score, conclusion.name());
+        }
+        if (outputMode.usesApi()) {
+            addComment(score, textSummary, markdownDetails, subScoreDetails, markdownSummary, conclusion, log);
+        }
+    }
+
     private void addComment(final AggregatedScore score, final String textSummary,
             final String markdownDetails, final String markdownSummary, final String prSummary,
             final Conclusion conclusion, final FilteredLog log) {
@@ -113,112 +180,69 @@ public class GitHubAutoGradingRunner extends AutoGradingRunner {
                 return;
             }
 
-            var githubBuilder = new GitHubBuilder().withOAuthToken(oAuthToken);
-            String apiUrl = getEnv("GITHUB_API_URL", log);
-            if (!apiUrl.isBlank()) {
-                githubBuilder.withEndpoint(apiUrl);
+            var client = GitHubClient.get(getEnv("GITHUB_API_URL", log), oAuthToken);
+            client.startRecording(getPerformance());
+            try {
+                var title = createMetricsBasedTitle(score, conclusion, log);
+                var sha = getCustomSha(log);
+                var versionLink = getVersionLink(log);
+                var summaryWithFooter = markdownSummary + "\n\n<hr />\n\nCreated by " + versionLink;
+                var skipAnnotations = !getEnv("SKIP_ANNOTATIONS", log).isEmpty();
+                var prNumber = getEnv("PR_NUMBER", log);
+                var strategy = getEnv("COMMENTS_STRATEGY", log);
+                var changedLinesOnly = !getEnv("CHANGED_LINES_ONLY", log).isEmpty();
+
+                var maxWarningAnnotations = getEnvironment("MAX_WARNING_ANNOTATIONS");
+                var maxCoverageAnnotations = getEnvironment("MAX_COVERAGE_ANNOTATIONS");
+
+                var digest = CheckRunDigest.create(title, conclusion.name(), textSummary, summaryWithFooter,
+                        markdownDetails, prSummary, prNumber, String.valueOf(skipAnnotations),
+                        String.valueOf(changedLinesOnly), maxWarningAnnotations, maxCoverageAnnotations);
+                var publication = new Publication(repository, sha, title, conclusion, textSummary, summaryWithFooter,
+                        markdownDetails, digest.value(), prNumber, strategy, prSummary, versionLink,
+                        changedLinesOnly, maxWarningAnnotations, maxCoverageAnnotations);
+
+                var outbox = getEnv("OUTBOX", log);
+                if (outbox.isBlank()) {
+                    Consumer<Consumer<Annotation>> annotations = consumer -> createAnnotations(score, consumer,
+                            skipAnnotations, () -> ChangedLines.forAnnotations(client, publication, log), log);
+                    new ResultPublisher(client, getEnv("COMMENT_STATE_FILE", log), getPerformance(), log)
+                            .publish(publication, annotations, getEnvironment("GITHUB_RUN_ATTEMPT"));
+                }
+                else {
+                    // the changed lines are fetched and applied when the outbox is drained
+                    new Outbox(Path.of(outbox), log).add(publication,
+                            consumer -> createDeferredAnnotations(score, consumer, skipAnnotations, log));
+                }
+                client.logRateLimitStatistics(log);
+            }
+            finally {
+                client.stopRecording(getPerformance());
             }
-
-            var github = githubBuilder.build();
-            var check = github.getRepository(repository)
-                    .createCheckRun(createMetricsBasedTitle(score, conclusion, log), getCustomSha(log))
-                    .withStatus(Status.COMPLETED)
-                    .withStartedAt(Date.from(Instant.now()))
-                    .withConclusion(conclusion);
-
-            var summaryWithFooter = markdownSummary + "\n\n<hr />\n\nCreated by " + getVersionLink(log);
-            var output = new Output(textSummary, summaryWithFooter).withText(markdownDetails);
-
-            attachAnnotations(score, output, log);
-            check.add(output);
-
-            var checksResult = createChecksRun(log, check);
-
-            commentPullRequest(prSummary, checksResult, repository, github, log);
         }
         catch (IOException exception) {
-            logException(log, exception, "Could create GitHub comments");
+            GitHubPublisher.logException(log, exception, "Could create GitHub comments");
         }
     }
 
-    private void attachAnnotations(final AggregatedScore score, final Output output, final FilteredLog log) {
-        if (getEnv("SKIP_ANNOTATIONS", log).isEmpty()) {
-            var annotationBuilder = new GitHubAnnotationsBuilder(output, computeAbsolutePathPrefixToRemove(log), log);
+    private void createDeferredAnnotations(final AggregatedScore score,
+            final Consumer<RankedAnnotation> annotations, final boolean skipAnnotations, final FilteredLog log) {
+        if (!skipAnnotations) {
+            var annotationBuilder = new GitHubAnnotationsBuilder(annotations,
+                    computeAbsolutePathPrefixToRemove(log), log,
+                    getEnvironment("MAX_WARNING_ANNOTATIONS"), getEnvironment("MAX_COVERAGE_ANNOTATIONS"));
             annotationBuilder.createAnnotations(score);
         }
     }
 
-    private void commentPullRequest(final String prSummary, final String checksResult, final String repository,
-            final GitHub github, final FilteredLog log) throws IOException {
-        var prNumber = getEnv("PR_NUMBER", log);
-        if (prNumber.isBlank()) {
-            return;
-        }
-
-        var strategy = getEnv("COMMENTS_STRATEGY", log);
-        var previousComment = findPreviousComment(github, repository, prNumber);
-
-        if ((Strings.CI.equals(strategy, "REMOVE") || StringUtils.isEmpty(strategy))
-                && previousComment.isPresent()) {
-            previousComment.get().delete();
-            log.logInfo("Successfully deleted previous comment for PR#" + prNumber);
-        }
-
-        var comment = createComment(prSummary, checksResult, log);
-        if (Strings.CI.equals(strategy, "UPDATE") && previousComment.isPresent()) {
-            previousComment.get().update(comment);
-            log.logInfo("Successfully replaced comment for PR#" + prNumber);
-            return;
-        }
-
-        github.getRepository(repository)
-                .getPullRequest(Integer.parseInt(prNumber))
-                .comment(comment);
-        log.logInfo("Successfully created new comment for PR#" + prNumber);
-    }
-
-    private String createComment(final String prSummary, final String checksResult, final FilteredLog log) {
-        var footer = "Created by %s. %s".formatted(getVersionLink(log), checksResult);
-        return COMMENT_MARKER + "\n\n" + prSummary + "\n\n<hr />\n\n" + footer + "\n";
-    }
-
-    private Optional<GHIssueComment> findPreviousComment(final GitHub github,
-            final String repository, final String prNumber) throws IOException {
-        var comments = github.getRepository(repository)
-                .getPullRequest(Integer.parseInt(prNumber))
-                .listComments();
-        for (var comment : comments) {
-            if (comment.getBody().contains(COMMENT_MARKER)) {
-                return Optional.of(comment);
-            }
-        }
-        return Optional.empty();
-    }
-
-    private String createChecksRun(final FilteredLog log, final GHCheckRunBuilder check) {
-        try {
-            GHCheckRun run = check.create();
-            log.logInfo("Successfully created check " + run);
-
-            return "More details are shown in the [GitHub Checks Result](%s).".formatted(
-                    run.getDetailsUrl().toString());
-        }
-        catch (IOException exception) {
-            logException(log, exception, "Could not create check");
-
-            return "A detailed GitHub Checks Result could not be created, see error log.";
-        }
-    }
-
-    private void logException(final FilteredLog log, final IOException exception, final String message) {
-        String errorMessage;
-        if (exception instanceof HttpException responseException) {
-            errorMessage = StringUtils.defaultIfBlank(responseException.getResponseMessage(), exception.getMessage());
-        }
-        else {
-            errorMessage = exception.getMessage();
+    private void createAnnotations(final AggregatedScore score, final Consumer<Annotation> annotations,
+            final boolean skipAnnotations, final Supplier<ChangedLines> changedLines, final FilteredLog log) {
+        if (!skipAnnotations) {
+            var annotationBuilder = new GitHubAnnotationsBuilder(annotations,
+                    computeAbsolutePathPrefixToRemove(log), log, changedLines.get(),
+                    getEnvironment("MAX_WARNING_ANNOTATIONS"), getEnvironment("MAX_COVERAGE_ANNOTATIONS"));
+            annotationBuilder.createAnnotations(score);
         }
-        log.logError("%s: %s", message, StringUtils.defaultIfBlank(errorMessage, "no error message available"));
     }
 
     private String getVersionLink(final FilteredLog log) {
@@ -229,7 +253,7 @@ public class GitHubAutoGradingRunner extends AutoGradingRunner {
     }
 
     private String getChecksName() {
-        return StringUtils.defaultIfBlank(System.getenv("CHECKS_NAME"), getDisplayName());
+        return StringUtils.defaultIfBlank(getEnvironment("CHECKS_NAME"), getDisplayName());
     }
 
     private String computeAbsolutePathPrefixToRemove(final FilteredLog log) {
@@ -237,12 +261,6 @@ public class GitHubAutoGradingRunner extends AutoGradingRunner {
                 StringUtils.substringAfter(getEnv("GITHUB_REPOSITORY", log), "/"));
     }
 
-    private String getEnv(final String key, final FilteredLog log) {
-        String value = StringUtils.defaultString(System.getenv(key));
-        log.logInfo(">>>> " + key + ": " + value);
-        return value;
-    }
-
     /**
      * Gets the SHA to use for the quality monitor check. First checks for a custom SHA (SHA) which takes precedence
      * over the default GITHUB_SHA. This allows workflows to override the SHA used for quality monitoring when needed.
@@ -311,7 +329,8 @@ public class GitHubAutoGradingRunner extends AutoGradingRunner {
      *
      * @return the title
      */
-    private String createMetricsBasedTitle(final AggregatedScore score, final Conclusion conclusion,
+    @VisibleForTesting
+    String createMetricsBasedTitle(final AggregatedScore score, final Conclusion conclusion,
             final FilteredLog log) {
         var titleMetric = StringUtils.defaultIfBlank(
                 StringUtils.lowerCase(getEnv("TITLE_METRIC", log)),
@@ -335,9 +354,9 @@ public class GitHubAutoGradingRunner extends AutoGradingRunner {
 
         if (metrics.containsKey(titleMetric)) {
             var value = metrics.get(titleMetric);
-            if (PARSER_REGISTRY.contains(titleMetric)) {
-                return String.format(Locale.ENGLISH, "%s - %s: %d", getChecksName(),
-                        PARSER_REGISTRY.get(titleMetric).getName(), value);
+            var parserName = ParserNames.getName(titleMetric);
+            if (parserName.isPresent()) {
+                return String.format(Locale.ENGLISH, "%s - %s: %d", getChecksName(), parserName.get(), value);
             }
             try {
                 var metric = Metric.fromName(titleMetric);
@@ -0,0 +1,231 @@
+package edu.hm.hafner.grading.github;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Grades several repositories in a single process, so that the startup of the JVM, the loading of the classes, and the
+ * connections to GitHub are shared by all repositories. The repositories are read from a manifest in JSON format: an
+ * array of entries with the properties {@code repository}, {@code sha}, {@code pr-number}, {@code config}, and
+ * {@code report-directory}. Each entry is graded by a separate {@link GitHubAutoGradingRunner} that uses the
+ * environment variables of the process, with the exception of the variables that are specific to a repository: these
+ * are replaced with the values of the entry. The report directories must be inside the working directory, the report
+ * files of an entry are searched only in its report directory. The files that are shared by all steps of a workflow
+ * (step summary, step outputs) and the export files are not written by the entries, since the results of the entries
+ * would be mixed up in these files.
+ *
+ * <p>
+ * The entries are graded concurrently, the number of entries that are graded at the same time is set by the
+ * environment variable {@code BATCH_PARALLELISM} (default: number of processors). The log of each entry is printed
+ * as a whole when the entry has been graded. An entry that cannot be graded is reported as failure, the other entries
+ * are graded nevertheless.
+ * </p>
+ *
+ * @author Ullrich Hafner
+ */
+class GitHubBatchRunner {
+    private static final String[] REPOSITORY_VARIABLES = {"GITHUB_REPOSITORY", "SHA", "PR_NUMBER",
+            "REPORT_DIRECTORY", "COMMENT_STATE_FILE", "PERFORMANCE_REPORT", "GITHUB_OUTPUT", "GITHUB_STEP_SUMMARY",
+            "EXPORT_JSON", "EXPORT_BINARY"};
+
+    private final PrintStream outputStream;
+    private final Map<String, String> environment;
+    private final Lock outputLock = new ReentrantLock();
+
+    /**
+     * Creates a new instance of {@link GitHubBatchRunner}.
+     *
+     * @param printStream
+     *         the stream to write the log messages to
+     * @param environment
+     *         the environment variables of the process
+     */
+    GitHubBatchRunner(final PrintStream printStream, final Map<String, String> environment) {
+        outputStream = printStream;
+        this.environment = environment;
+    }
+
+    /**
+     * Grades all repositories of the specified manifest.
+     *
+     * @param manifest
+     *         the manifest that contains the repositories to grade
+     *
+     * @return the repositories that could not be graded or that failed the quality gates
+     */
+    @SuppressWarnings({"PMD.DoNotUseThreads", "PMD.CloseResource"})
+    List<String> run(final Path manifest) {
+        var entries = readManifest(manifest);
+        outputStream.printf(Locale.ENGLISH, "Grading %d repositories of manifest '%s'%n", entries.size(), manifest);
+
+        var executor = Executors.newFixedThreadPool(getParallelism());
+        try {
+            var results = new ArrayList<Future<String>>();
+            for (BatchEntry entry : entries) {
+                results.add(executor.submit(createTask(entry)));
+            }
+
+            var failures = new ArrayList<String>();
+            for (Future<String> result : results) {
+                var failure = get(result);
+                if (!failure.isEmpty()) {
+                    failures.add(failure);
+                }
+            }
+            outputStream.printf(Locale.ENGLISH, "Graded %d repositories: %d failed %s%n",
+                    entries.size(), failures.size(), failures);
+            return failures;
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    private Callable<String> createTask(final BatchEntry entry) {
+        return () -> grade(entry);
+    }
+
+    // returns the repository if grading failed, or an empty string otherwise
+    private String grade(final BatchEntry entry) {
+        var buffer = new ByteArrayOutputStream();
+        String failure;
+        try (var printStream = new PrintStream(buffer, true, StandardCharsets.UTF_8)) {
+            failure = grade(entry, printStream);
+        }
+        print(buffer);
+        return failure;
+    }
+
+    @SuppressWarnings("checkstyle:IllegalCatch")
+    private String grade(final BatchEntry entry, final PrintStream printStream) {
+        try {
+            new GitHubAutoGradingRunner(printStream, entry.createEnvironment(environment)).run();
+
+            return StringUtils.EMPTY;
+        }
+        catch (IllegalStateException exception) { // quality gates failed or errors in the log
+            return entry.repository();
+        }
+        catch (RuntimeException exception) { // an unexpected error must not abort the grading of the other entries
+            printStream.printf(Locale.ENGLISH, "Can't grade %s: %s%n", entry.repository(),
+                    ExceptionUtils.getStackTrace(exception));
+
+            return entry.repository();
+        }
+    }
+
+    private void print(final ByteArrayOutputStream buffer) {
+        outputLock.lock();
+        try {
+            outputStream.print(buffer.toString(StandardCharsets.UTF_8));
+            outputStream.flush();
+        }
+        finally {
+            outputLock.unlock();
+        }
+    }
+
+    @SuppressWarnings("PMD.DoNotUseThreads")
+    private String get(final Future<String> result) {
+        try {
+            return result.get();
+        }
+        catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+
+            throw new IllegalStateException("Interrupted while grading the repositories", exception);
+        }
+        catch (ExecutionException exception) {
+            throw new IllegalStateException("Can't grade the repositories", exception);
+        }
+    }
+
+    private int getParallelism() {
+        var parallelism = environment.get("BATCH_PARALLELISM");
+        if (StringUtils.isNumeric(parallelism) && Integer.parseInt(parallelism) > 0) {
+            return Integer.parseInt(parallelism);
+        }
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    private List<BatchEntry> readManifest(final Path manifest) {
+        try {
+            var root = new ObjectMapper().readTree(Files.readString(manifest, StandardCharsets.UTF_8));
+            if (!root.isArray()) {
+                throw new IllegalArgumentException("Manifest must contain an array of entries: " + manifest);
+            }
+            var entries = new ArrayList<BatchEntry>();
+            for (JsonNode entry : root) {
+                entries.add(BatchEntry.from(entry));
+            }
+            return entries;
+        }
+        catch (IOException exception) {
+            throw new UncheckedIOException("Can't read manifest " + manifest, exception);
+        }
+    }
+
+    /**
+     * A repository that should be graded.
+     *
+     * @param repository
+     *         the name of the repository, e.g. {@code uhafner/autograding-github-action}
+     * @param sha
+     *         the SHA of the commit to attach the check to
+     * @param prNumber
+     *         the number of the pull request to comment, or an empty string
+     * @param config
+     *         the autograding configuration, or an empty string to use the configuration of the process
+     * @param reportDirectory
+     *         the directory that contains the report files of the repository
+     */
+    record BatchEntry(String repository, String sha, String prNumber, String config, String reportDirectory) {
+        static BatchEntry from(final JsonNode entry) {
+            var repository = entry.path("repository").asText();
+            if (StringUtils.isBlank(repository)) {
+                throw new IllegalArgumentException("Manifest entry has no repository: " + entry);
+            }
+            var config = entry.path("config");
+            return new BatchEntry(repository, entry.path("sha").asText(), entry.path("pr-number").asText(),
+                    config.isObject() ? config.toString() : config.asText(),
+                    entry.path("report-directory").asText());
+        }
+
+        Map<String, String> createEnvironment(final Map<String, String> processEnvironment) {
+            var variables = new HashMap<>(processEnvironment);
+            for (String variable : REPOSITORY_VARIABLES) {
+                variables.remove(variable);
+            }
+            variables.put("GITHUB_REPOSITORY", repository);
+            variables.put("SHA", sha);
+            variables.put("PR_NUMBER", prNumber);
+            variables.put("REPORT_DIRECTORY", reportDirectory);
+            if (StringUtils.isNotBlank(config)) {
+                variables.put("CONFIG", config);
+            }
+            return variables;
+        }
+    }
+}
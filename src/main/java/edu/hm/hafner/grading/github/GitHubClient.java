@@ -0,0 +1,245 @@
+package edu.hm.hafner.grading.github;
+
+import org.apache.commons.lang3.StringUtils;
+
+import edu.hm.hafner.util.FilteredLog;
+import edu.hm.hafner.util.VisibleForTesting;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.kohsuke.github.GHPullRequest;
+import org.kohsuke.github.GHRepository;
+import org.kohsuke.github.GitHub;
+import org.kohsuke.github.GitHubAbuseLimitHandler;
+import org.kohsuke.github.GitHubBuilder;
+import org.kohsuke.github.GitHubRateLimitHandler;
+import org.kohsuke.github.authorization.ImmutableAuthorizationProvider;
+import org.kohsuke.github.connector.GitHubConnector;
+import org.kohsuke.github.extras.HttpClientGitHubConnector;
+
+/**
+ * Provides access to the GitHub API. The connection to GitHub is created only once per process for each combination
+ * of API URL and token, the key of a connection contains the SHA-256 digest of the token. All connections share a
+ * single pooled {@link HttpClient} that keeps the connections to GitHub alive. Metadata requests are sent as
+ * conditional requests (see {@link ConditionalRequestConnector}). Each run of the action uses a new client, that caches
+ * the resolved repositories and pull requests during the run, so that the same metadata is fetched at most once per
+ * run. Since the cache is released with the client, a long-running process (see {@link GitHubBatchRunner}) neither
+ * grows without limit nor serves outdated pull requests in a later run. Requests that are rejected by the rate limits of GitHub are retried by a
+ * {@link RateLimitScheduler}. The duration of the requests is recorded by a {@link TimingConnector} in the recorders
+ * of the runs that currently use the client.
+ *
+ * @author Ullrich Hafner
+ */
+class GitHubClient {
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(30);
+    private static final HttpClient HTTP_CLIENT = HttpClient.newBuilder()
+            .connectTimeout(CONNECT_TIMEOUT)
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+    private static final Map<String, Connection> CONNECTIONS = new ConcurrentHashMap<>();
+    private static final String APP_TOKEN_PREFIX = "ghs_";
+
+    private final GitHub github;
+    private final boolean isAppToken;
+    private final RateLimitScheduler scheduler;
+    private final TimingConnector timing;
+    private final Map<String, GHRepository> repositories = new ConcurrentHashMap<>();
+    private final Map<String, GHPullRequest> pullRequests = new ConcurrentHashMap<>();
+
+    @VisibleForTesting
+    GitHubClient(final GitHub github) {
+        this(new Connection(github, false, new RateLimitScheduler(GitHubConnector.OFFLINE),
+                new TimingConnector(GitHubConnector.OFFLINE)));
+    }
+
+    private GitHubClient(final Connection connection) {
+        github = connection.github();
+        isAppToken = connection.isAppToken();
+        scheduler = connection.scheduler();
+        timing = connection.timing();
+    }
+
+    /**
+     * Returns a new client for the specified API URL and token. The client should be used for a single run only. The
+     * connection to GitHub will be created on the first invocation and is shared by all clients with the same API URL
+     * and token.
+     *
+     * @param apiUrl
+     *         the URL of the GitHub API, an empty string selects the default URL
+     * @param token
+     *         the OAuth token to authenticate with
+     *
+     * @return the client
+     * @throws IOException
+     *         if the client could not be created
+     */
+    static GitHubClient get(final String apiUrl, final String token) throws IOException {
+        var key = apiUrl + "@" + hash(token);
+        var connection = CONNECTIONS.get(key);
+        if (connection == null) {
+            var created = connect(apiUrl, token, new RateLimitScheduler(new HttpClientGitHubConnector(HTTP_CLIENT)));
+            connection = CONNECTIONS.putIfAbsent(key, created);
+            if (connection == null) {
+                return new GitHubClient(created);
+            }
+        }
+        return new GitHubClient(connection);
+    }
+
+    // the key must be unique for each token, but the token itself should not be kept in another place
+    private static String hash(final String token) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        }
+        catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    @VisibleForTesting
+    static GitHubClient create(final String apiUrl, final String token, final RateLimitScheduler scheduler)
+            throws IOException {
+        return new GitHubClient(connect(apiUrl, token, scheduler));
+    }
+
+    private static Connection connect(final String apiUrl, final String token, final RateLimitScheduler scheduler)
+            throws IOException {
+        var timing = new TimingConnector(new ConditionalRequestConnector(scheduler));
+        var builder = new GitHubBuilder()
+                // the login of the token is not required, so the token is not sent as OAuth token that fetches it
+                .withAuthorizationProvider(ImmutableAuthorizationProvider.fromAppInstallationToken(token))
+                .withConnector(timing)
+                .withRateLimitHandler(GitHubRateLimitHandler.FAIL) // the scheduler already waited if possible
+                .withAbuseLimitHandler(GitHubAbuseLimitHandler.FAIL);
+        if (StringUtils.isNotBlank(apiUrl)) {
+            builder.withEndpoint(apiUrl);
+        }
+        return new Connection(builder.build(), token.startsWith(APP_TOKEN_PREFIX), scheduler, timing);
+    }
+
+    GitHub getGitHub() {
+        return github;
+    }
+
+    /**
+     * Returns the login of the user that owns the token. The installation tokens of GitHub Apps (e.g., the
+     * {@code GITHUB_TOKEN} of a workflow) belong to no user, so no request is sent for these tokens.
+     *
+     * @return the login, or an empty string if the token belongs to a GitHub App
+     * @throws IOException
+     *         if the user could not be fetched
+     */
+    String getLogin() throws IOException {
+        if (isAppToken) {
+            return StringUtils.EMPTY;
+        }
+        return github.getMyself().getLogin();
+    }
+
+    /**
+     * Logs how long the requests of the connection of this client have been delayed by the rate limits of GitHub.
+     *
+     * @param log
+     *         the logger
+     */
+    void logRateLimitStatistics(final FilteredLog log) {
+        if (scheduler.getRetries() > 0) {
+            log.logInfo("Waited %d ms for GitHub rate limits (%d retried requests)",
+                    scheduler.getWaitTime().toMillis(), scheduler.getRetries());
+        }
+    }
+
+    /**
+     * Starts recording the number and the duration of the requests of this client in the specified recorder. Since
+     * the connection is shared by all runs of the process, the recorder also contains the requests of other runs that
+     * use the same connection at the same time.
+     *
+     * @param recorder
+     *         the recorder of the run
+     */
+    void startRecording(final PerformanceRecorder recorder) {
+        timing.register(recorder);
+    }
+
+    /**
+     * Stops recording the requests of this client in the specified recorder.
+     *
+     * @param recorder
+     *         the recorder of the run
+     */
+    void stopRecording(final PerformanceRecorder recorder) {
+        timing.unregister(recorder);
+    }
+
+    /**
+     * Returns the repository with the specified name. The repository is fetched only once by this client.
+     *
+     * @param name
+     *         the name of the repository, e.g. {@code uhafner/autograding-github-action}
+     *
+     * @return the repository
+     * @throws IOException
+     *         if the repository could not be fetched
+     */
+    GHRepository getRepository(final String name) throws IOException {
+        var repository = repositories.get(name);
+        if (repository == null) {
+            var fetched = github.getRepository(name);
+            repository = repositories.putIfAbsent(name, fetched);
+            if (repository == null) {
+                return fetched;
+            }
+        }
+        return repository;
+    }
+
+    /**
+     * Returns the pull request with the specified number. The pull request is fetched only once by this client.
+     *
+     * @param repository
+     *         the repository of the pull request
+     * @param number
+     *         the number of the pull request
+     *
+     * @return the pull request
+     * @throws IOException
+     *         if the pull request could not be fetched
+     */
+    GHPullRequest getPullRequest(final GHRepository repository, final int number) throws IOException {
+        var key = repository.getFullName() + "#" + number;
+        var pullRequest = pullRequests.get(key);
+        if (pullRequest == null) {
+            var fetched = repository.getPullRequest(number);
+            pullRequest = pullRequests.putIfAbsent(key, fetched);
+            if (pullRequest == null) {
+                return fetched;
+            }
+        }
+        return pullRequest;
+    }
+
+    /**
+     * The connection to GitHub that is shared by all clients with the same API URL and token.
+     *
+     * @param github
+     *         the GitHub API
+     * @param isAppToken
+     *         determines whether the token is an installation token of a GitHub App
+     * @param scheduler
+     *         the scheduler that retries the requests that hit the rate limits
+     * @param timing
+     *         the connector that records the duration of the requests
+     */
+    private record Connection(GitHub github, boolean isAppToken, RateLimitScheduler scheduler,
+                              TimingConnector timing) {
+    }
+}
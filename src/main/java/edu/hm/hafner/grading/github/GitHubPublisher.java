@@ -0,0 +1,291 @@
+package edu.hm.hafner.grading.github;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Strings;
+
+import edu.hm.hafner.util.FilteredLog;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.kohsuke.github.GHCheckRun;
+import org.kohsuke.github.GHCheckRunBuilder;
+import org.kohsuke.github.GHIssueComment;
+import org.kohsuke.github.GHPullRequest;
+import org.kohsuke.github.GHRepository;
+import org.kohsuke.github.HttpException;
+
+/**
+ * Publishes the grading results to GitHub: creates a check run (with annotations) and a comment in the pull request.
+ * Since each step is a blocking HTTP round trip, all independent steps are executed concurrently using virtual
+ * threads: the lookup and removal of a previous pull request comment overlap with the creation of the check run and
+ * the upload of the annotations. Only the new pull request comment waits for the URL of the created check run.
+ *
+ * @author Ullrich Hafner
+ */
+class GitHubPublisher {
+    static final String COMMENT_MARKER = "<!-- -[quality-monitor-comment]- -->";
+
+    private static final String FOOTER_SEPARATOR = "\n\n<hr />\n\n";
+    private static final String NO_CHECKS_RESULT = "A detailed GitHub Checks Result could not be created, see error log.";
+
+    private final GitHubClient client;
+    private final String repositoryName;
+    private final CommentLocator commentLocator;
+    private final FilteredLog log;
+
+    GitHubPublisher(final GitHubClient client, final String repositoryName, final CommentLocator commentLocator,
+            final FilteredLog log) {
+        this.client = client;
+        this.repositoryName = repositoryName;
+        this.commentLocator = commentLocator;
+        this.log = log;
+    }
+
+    /**
+     * Publishes the check run and the pull request comment.
+     *
+     * @param checkRunFactory
+     *         creates the builder for the check run in the specified repository
+     * @param annotationsPublisher
+     *         attaches the annotations to the created check run
+     * @param prNumber
+     *         the number of the pull request to comment, or an empty string if no comment should be created
+     * @param strategy
+     *         the strategy to handle the comment of a previous run: REMOVE (default) or UPDATE
+     * @param prSummary
+     *         the summary to show in the pull request comment
+     * @param versionLink
+     *         the link to the version of the action that created the comment
+     *
+     * @return the created check run, or an empty optional if the check run could not be created
+     */
+    @SuppressWarnings({"checkstyle:ParameterNumber", "PMD.DoNotUseThreads"})
+    Optional<GHCheckRun> publish(final Function<GHRepository, GHCheckRunBuilder> checkRunFactory,
+            final Consumer<GHCheckRun> annotationsPublisher, final String prNumber, final String strategy,
+            final String prSummary, final String versionLink) {
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var repository = CompletableFuture.supplyAsync(this::getRepository, executor);
+            var checkRun = repository.thenApplyAsync(r -> createCheckRun(checkRunFactory.apply(r)), executor);
+            var annotations = checkRun.thenAcceptAsync(run -> run.ifPresent(annotationsPublisher), executor);
+
+            var comment = prNumber.isBlank()
+                    ? CompletableFuture.completedFuture(null)
+                    : commentPullRequest(repository, checkRun.thenApply(this::createChecksResult),
+                            prNumber, strategy, prSummary, versionLink, executor);
+
+            if (join(repository, "Could create GitHub comments")) {
+                join(annotations, "Could not create check");
+                join(comment, "Could create GitHub comments");
+
+                return checkRun.join();
+            }
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Publishes only the pull request comment for a check run that has already been created.
+     *
+     * @param checkRun
+     *         the existing check run that is linked in the comment
+     * @param prNumber
+     *         the number of the pull request to comment, or an empty string if no comment should be created
+     * @param strategy
+     *         the strategy to handle the comment of a previous run: REMOVE (default) or UPDATE
+     * @param prSummary
+     *         the summary to show in the pull request comment
+     * @param versionLink
+     *         the link to the version of the action that created the comment
+     */
+    @SuppressWarnings("PMD.DoNotUseThreads")
+    void publishComment(final GHCheckRun checkRun, final String prNumber, final String strategy,
+            final String prSummary, final String versionLink) {
+        if (prNumber.isBlank()) {
+            return;
+        }
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var repository = CompletableFuture.supplyAsync(this::getRepository, executor);
+            var comment = commentPullRequest(repository,
+                    CompletableFuture.completedFuture(createChecksResult(Optional.of(checkRun))),
+                    prNumber, strategy, prSummary, versionLink, executor);
+
+            if (join(repository, "Could create GitHub comments")) {
+                join(comment, "Could create GitHub comments");
+            }
+        }
+    }
+
+    @SuppressWarnings({"checkstyle:ParameterNumber", "PMD.DoNotUseThreads"})
+    private CompletableFuture<?> commentPullRequest(final CompletableFuture<GHRepository> repository,
+            final CompletableFuture<String> checksResult, final String prNumber, final String strategy,
+            final String prSummary, final String versionLink, final ExecutorService executor) {
+        var pullRequest = repository.thenApplyAsync(r -> getPullRequest(r, prNumber), executor);
+        var previousComment = pullRequest.thenApplyAsync(this::findPreviousComment, executor);
+        var comment = checksResult.thenApply(result -> createComment(prSummary, result, versionLink));
+
+        return previousComment.thenComposeAsync(c -> isUnchanged(c, prSummary, prNumber)
+                ? CompletableFuture.completedFuture(null)
+                : CompletableFuture.supplyAsync(() -> removePreviousComment(c, strategy, prNumber), executor)
+                        .thenAcceptBothAsync(comment,
+                                (p, body) -> comment(pullRequest.join(), p, body, strategy, prNumber), executor),
+                executor);
+    }
+
+    // the footer is ignored since it contains the link to the check run that changes with each run
+    private boolean isUnchanged(final Optional<GHIssueComment> previousComment, final String prSummary,
+            final String prNumber) {
+        if (previousComment.isPresent()
+                && StringUtils.substringBeforeLast(previousComment.get().getBody(), FOOTER_SEPARATOR)
+                .equals(createContent(prSummary))) {
+            log.logInfo("Skipping comment for PR#%s, the summary is unchanged", prNumber);
+            commentLocator.remember(previousComment.get());
+
+            return true;
+        }
+        return false;
+    }
+
+    private GHRepository getRepository() {
+        try {
+            return client.getRepository(repositoryName);
+        }
+        catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private GHPullRequest getPullRequest(final GHRepository repository, final String prNumber) {
+        try {
+            return client.getPullRequest(repository, Integer.parseInt(prNumber));
+        }
+        catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private Optional<GHCheckRun> createCheckRun(final GHCheckRunBuilder check) {
+        try {
+            GHCheckRun run = check.create();
+            log.logInfo("Successfully created check " + run);
+
+            return Optional.of(run);
+        }
+        catch (IOException exception) {
+            logException(log, exception, "Could not create check");
+
+            return Optional.empty();
+        }
+    }
+
+    private String createChecksResult(final Optional<GHCheckRun> checkRun) {
+        return checkRun.map(run -> "More details are shown in the [GitHub Checks Result](%s).".formatted(
+                run.getDetailsUrl().toString())).orElse(NO_CHECKS_RESULT);
+    }
+
+    private String createComment(final String prSummary, final String checksResult, final String versionLink) {
+        var footer = "Created by %s. %s".formatted(versionLink, checksResult);
+        return createContent(prSummary) + FOOTER_SEPARATOR + footer + "\n";
+    }
+
+    private String createContent(final String prSummary) {
+        return COMMENT_MARKER + "\n\n" + prSummary;
+    }
+
+    private Optional<GHIssueComment> findPreviousComment(final GHPullRequest pullRequest) {
+        try {
+            return commentLocator.find(pullRequest);
+        }
+        catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private Optional<GHIssueComment> removePreviousComment(final Optional<GHIssueComment> previousComment,
+            final String strategy, final String prNumber) {
+        if (isRemoveStrategy(strategy) && previousComment.isPresent()) {
+            try {
+                previousComment.get().delete();
+                log.logInfo("Successfully deleted previous comment for PR#" + prNumber);
+
+                return Optional.empty();
+            }
+            catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        }
+        return previousComment;
+    }
+
+    private boolean isRemoveStrategy(final String strategy) {
+        return Strings.CI.equals(strategy, "REMOVE") || StringUtils.isEmpty(strategy);
+    }
+
+    private void comment(final GHPullRequest pullRequest, final Optional<GHIssueComment> previousComment,
+            final String comment, final String strategy, final String prNumber) {
+        try {
+            if (Strings.CI.equals(strategy, "UPDATE") && previousComment.isPresent()) {
+                previousComment.get().update(comment);
+                log.logInfo("Successfully replaced comment for PR#" + prNumber);
+                commentLocator.remember(previousComment.get());
+                return;
+            }
+
+            var created = pullRequest.comment(comment);
+            log.logInfo("Successfully created new comment for PR#" + prNumber);
+            commentLocator.remember(created);
+        }
+        catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private boolean join(final CompletableFuture<?> future, final String message) {
+        try {
+            future.join();
+
+            return true;
+        }
+        catch (CompletionException exception) {
+            if (exception.getCause() instanceof UncheckedIOException ioException) {
+                logException(log, Objects.requireNonNull(ioException.getCause()), message);
+
+                return false;
+            }
+            throw exception;
+        }
+    }
+
+    /**
+     * Logs the specified exception of a GitHub API call.
+     *
+     * @param log
+     *         the logger
+     * @param exception
+     *         the exception to log
+     * @param message
+     *         the message to prefix the error with
+     */
+    static void logException(final FilteredLog log, final IOException exception, final String message) {
+        log.logError("%s: %s", message, getErrorMessage(exception));
+    }
+
+    static String getErrorMessage(final IOException exception) {
+        String errorMessage;
+        if (exception instanceof HttpException responseException) {
+            errorMessage = StringUtils.defaultIfBlank(responseException.getResponseMessage(), exception.getMessage());
+        }
+        else {
+            errorMessage = exception.getMessage();
+        }
+        return StringUtils.defaultIfBlank(errorMessage, "no error message available");
+    }
+}
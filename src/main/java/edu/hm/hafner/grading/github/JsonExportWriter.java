@@ -0,0 +1,89 @@
+package edu.hm.hafner.grading.github;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes the values as JSON. The values are streamed to the output without building a tree in memory.
+ *
+ * @author Ullrich Hafner
+ */
+class JsonExportWriter implements ExportWriter {
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private final JsonGenerator generator;
+
+    /**
+     * Creates a new instance of {@link JsonExportWriter}.
+     *
+     * @param output
+     *         the stream to write to, will be closed when this writer is closed
+     *
+     * @throws IOException
+     *         if the writer could not be created
+     */
+    JsonExportWriter(final OutputStream output) throws IOException {
+        generator = FACTORY.createGenerator(output, JsonEncoding.UTF8);
+    }
+
+    @Override
+    public void startObject(final String name) throws IOException {
+        writeName(name);
+        generator.writeStartObject();
+    }
+
+    @Override
+    public void endObject() throws IOException {
+        generator.writeEndObject();
+    }
+
+    @Override
+    public void startArray(final String name) throws IOException {
+        writeName(name);
+        generator.writeStartArray();
+    }
+
+    @Override
+    public void endArray() throws IOException {
+        generator.writeEndArray();
+    }
+
+    @Override
+    public void writeString(final String name, final String value) throws IOException {
+        writeName(name);
+        generator.writeString(value);
+    }
+
+    @Override
+    public void writeNumber(final String name, final long value) throws IOException {
+        writeName(name);
+        generator.writeNumber(value);
+    }
+
+    @Override
+    public void writeNumber(final String name, final double value) throws IOException {
+        writeName(name);
+        generator.writeNumber(value);
+    }
+
+    @Override
+    public void writeBoolean(final String name, final boolean value) throws IOException {
+        writeName(name);
+        generator.writeBoolean(value);
+    }
+
+    private void writeName(final String name) throws IOException {
+        if (!name.isEmpty()) {
+            generator.writeFieldName(name);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+}
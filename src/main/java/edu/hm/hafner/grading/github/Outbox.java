@@ -0,0 +1,330 @@
+package edu.hm.hafner.grading.github;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Strings;
+
+import edu.hm.hafner.grading.github.RateLimitScheduler.Sleeper;
+import edu.hm.hafner.util.FilteredLog;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.kohsuke.github.GHCheckRun.AnnotationLevel;
+import org.kohsuke.github.GHCheckRunBuilder.Annotation;
+
+/**
+ * A durable journal of publications that still need to be sent to GitHub. Each {@link Publication} is stored as a
+ * separate JSON file in the outbox directory. A file is written atomically, so that a crash never leaves a partial
+ * entry behind. When the outbox is drained, the entries are sent in the order of their creation and removed from the
+ * outbox after they have been published without errors. Entries that still fail after all attempts remain in the
+ * outbox, so they can be published by the next drain. The annotations are stored in the format of the GitHub Checks
+ * API. They are streamed while writing and reading an entry, so that they are never kept in memory as a whole. Since
+ * the changed lines of the pull request and the limits are applied when an entry is published (see
+ * {@link AnnotationSelector}), each annotation additionally stores the values that are required for the selection.
+ *
+ * @author Ullrich Hafner
+ */
+class Outbox {
+    private static final String SUFFIX = ".json";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private static final String ANNOTATIONS = "annotations";
+    private static final String SELECTION = "selection";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final ObjectMapper ANNOTATION_MAPPER = new ObjectMapper()
+            .setVisibility(PropertyAccessor.FIELD, Visibility.ANY);
+
+    private final Path directory;
+    private final FilteredLog log;
+
+    /**
+     * Creates a new instance of {@link Outbox}.
+     *
+     * @param directory
+     *         the directory that contains the entries of the outbox
+     * @param log
+     *         the logger
+     */
+    Outbox(final Path directory, final FilteredLog log) {
+        this.directory = directory;
+        this.log = log;
+    }
+
+    /**
+     * Adds the specified publication to the outbox.
+     *
+     * @param publication
+     *         the publication to add
+     * @param annotations
+     *         passes the deferred annotations of the check run to the specified consumer
+     */
+    void add(final Publication publication, final Consumer<Consumer<RankedAnnotation>> annotations) {
+        try {
+            Files.createDirectories(directory);
+            var temporary = Files.createTempFile(directory, createPrefix(), TEMPORARY_SUFFIX);
+            try {
+                var count = write(temporary, publication, annotations);
+                var entry = Path.of(Strings.CS.removeEnd(temporary.toString(), TEMPORARY_SUFFIX) + SUFFIX);
+                Files.move(temporary, entry, StandardCopyOption.ATOMIC_MOVE);
+
+                log.logInfo("Queued results of %s with %d annotations in outbox '%s'",
+                        publication.sha(), count, entry);
+            }
+            finally {
+                Files.deleteIfExists(temporary); // a failed entry must not remain in the outbox
+            }
+        }
+        catch (IOException | UncheckedIOException exception) {
+            log.logError("Could not write the results to the outbox '%s': %s", directory,
+                    StringUtils.defaultString(exception.getMessage()));
+        }
+    }
+
+    private int write(final Path file, final Publication publication,
+            final Consumer<Consumer<RankedAnnotation>> annotations) throws IOException {
+        var writer = new PublicationWriter();
+        try (var generator = MAPPER.createGenerator(file.toFile(), JsonEncoding.UTF8)) {
+            writer.write(generator, publication, annotations);
+        }
+        return writer.getCount();
+    }
+
+    // the creation time orders the entries, the random part of the temporary file makes the name unique
+    private String createPrefix() {
+        return StringUtils.leftPad(String.valueOf(System.currentTimeMillis()), 13, '0') + "-";
+    }
+
+    /**
+     * Returns the entries of the outbox in the order of their creation.
+     *
+     * @return the entries of the outbox
+     */
+    List<Path> getEntries() {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (var files = Files.list(directory)) {
+            return files.filter(file -> file.toString().endsWith(SUFFIX)).sorted().toList();
+        }
+        catch (IOException exception) {
+            log.logError("Could not read the outbox '%s': %s", directory,
+                    StringUtils.defaultString(exception.getMessage()));
+
+            return List.of();
+        }
+    }
+
+    /**
+     * Sends all entries of the outbox. An entry is sent again if the publisher logged an error, the delay between the
+     * attempts doubles after each attempt.
+     *
+     * @param publisher
+     *         sends the publication of an entry
+     * @param attempts
+     *         the maximum number of attempts for each entry
+     * @param backoff
+     *         the delay before the second attempt
+     * @param sleeper
+     *         waits between two attempts
+     *
+     * @return the number of entries that could not be published
+     */
+    int drain(final EntryPublisher publisher, final int attempts, final Duration backoff,
+            final Sleeper sleeper) {
+        var entries = getEntries();
+        log.logInfo("Publishing %d entries of outbox '%s'", entries.size(), directory);
+
+        int remaining = 0;
+        for (Path entry : entries) {
+            if (!publish(entry, publisher, attempts, backoff, sleeper)) {
+                remaining++;
+            }
+        }
+        return remaining;
+    }
+
+    @SuppressWarnings("PMD.DoNotUseThreads")
+    private boolean publish(final Path entry, final EntryPublisher publisher,
+            final int attempts, final Duration backoff, final Sleeper sleeper) {
+        try {
+            var publication = readPublication(entry);
+            var delay = backoff;
+            for (int attempt = 1; attempt <= attempts; attempt++) {
+                var attemptLog = new FilteredLog("Errors while publishing '%s':".formatted(entry));
+                publisher.publish(publication, consumer -> readAnnotations(entry, consumer), attemptLog);
+                if (!attemptLog.hasErrors()) {
+                    log.merge(attemptLog);
+                    Files.delete(entry);
+
+                    return true;
+                }
+                if (attempt == attempts) {
+                    log.merge(attemptLog);
+                    log.logError("Could not publish '%s' after %d attempts, keeping it in the outbox", entry, attempts);
+                }
+                else {
+                    var errors = attemptLog.getErrorMessages();
+                    log.logInfo("Attempt %d to publish '%s' failed (%s), retrying in %d ms",
+                            attempt, entry, errors.get(errors.size() - 1), delay.toMillis());
+                    sleeper.sleep(delay);
+                    delay = delay.multipliedBy(2);
+                }
+            }
+        }
+        catch (IOException exception) {
+            log.logError("Could not read the outbox entry '%s': %s", entry,
+                    StringUtils.defaultString(exception.getMessage()));
+        }
+        catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+
+            log.logError("Interrupted while publishing the outbox entry '%s'", entry);
+        }
+        return false;
+    }
+
+    // the annotations are skipped, they are read again by each attempt
+    private Publication readPublication(final Path entry) throws IOException {
+        try (var parser = MAPPER.createParser(entry.toFile())) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "The outbox entry is not a JSON object");
+            }
+            var properties = MAPPER.createObjectNode();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                var name = parser.currentName();
+                parser.nextToken();
+                if (ANNOTATIONS.equals(name)) {
+                    parser.skipChildren();
+                }
+                else {
+                    properties.set(name, MAPPER.readTree(parser));
+                }
+            }
+            return MAPPER.treeToValue(properties, Publication.class);
+        }
+    }
+
+    // only the current annotation is kept in memory, the uploader sends the annotations batch by batch
+    private void readAnnotations(final Path entry, final Consumer<RankedAnnotation> consumer) {
+        try (var parser = MAPPER.createParser(entry.toFile())) {
+            parser.nextToken();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                var name = parser.currentName();
+                if (parser.nextToken() == JsonToken.START_ARRAY && ANNOTATIONS.equals(name)) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        consumer.accept(toRankedAnnotation(MAPPER.readTree(parser)));
+                    }
+                    return;
+                }
+                parser.skipChildren();
+            }
+        }
+        catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private static RankedAnnotation toRankedAnnotation(final JsonNode node) {
+        var annotation = new Annotation(node.path("path").asText(),
+                node.path("start_line").asInt(), node.path("end_line").asInt(),
+                AnnotationLevel.valueOf(node.path("annotation_level").asText().toUpperCase(Locale.ENGLISH)),
+                node.path("message").asText());
+        if (node.hasNonNull("title")) {
+            annotation.withTitle(node.get("title").asText());
+        }
+        if (node.hasNonNull("raw_details")) {
+            annotation.withRawDetails(node.get("raw_details").asText());
+        }
+        if (node.hasNonNull("start_column") && node.hasNonNull("end_column")) {
+            annotation.withStartColumn(node.get("start_column").asInt()).withEndColumn(node.get("end_column").asInt());
+        }
+        var selection = node.path(SELECTION);
+        return new RankedAnnotation(annotation, node.path("path").asText(),
+                selection.path("line_start").asInt(), selection.path("line_end").asInt(),
+                selection.path("warning").asBoolean(), selection.path("priority").asLong());
+    }
+
+    /**
+     * Sends the publication of an outbox entry.
+     */
+    @FunctionalInterface
+    interface EntryPublisher {
+        /**
+         * Sends the specified publication and logs the errors to the specified log.
+         *
+         * @param publication
+         *         the publication to send
+         * @param annotations
+         *         passes the deferred annotations of the check run to the specified consumer, the annotations are
+         *         read from the outbox entry on each call
+         * @param log
+         *         the logger of the current attempt
+         */
+        void publish(Publication publication, Consumer<Consumer<RankedAnnotation>> annotations, FilteredLog log);
+    }
+
+    /**
+     * Writes a publication as JSON. The annotations are written to the JSON generator as soon as they are created, so
+     * that they are never kept in memory as a whole.
+     */
+    private static final class PublicationWriter {
+        private static final ObjectWriter WRITER = MAPPER.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        private int count;
+
+        void write(final JsonGenerator generator, final Publication publication,
+                final Consumer<Consumer<RankedAnnotation>> annotations) throws IOException {
+            ObjectNode properties = MAPPER.valueToTree(publication);
+
+            generator.writeStartObject();
+            for (Map.Entry<String, JsonNode> property : properties.properties()) {
+                generator.writeFieldName(property.getKey());
+                WRITER.writeValue(generator, property.getValue());
+            }
+            generator.writeArrayFieldStart(ANNOTATIONS);
+            annotations.accept(annotation -> write(generator, annotation));
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+
+        private void write(final JsonGenerator generator, final RankedAnnotation annotation) {
+            try {
+                ObjectNode node = ANNOTATION_MAPPER.valueToTree(annotation.annotation());
+                node.putObject(SELECTION)
+                        .put("line_start", annotation.lineStart())
+                        .put("line_end", annotation.lineEnd())
+                        .put("warning", annotation.isWarning())
+                        .put("priority", annotation.priority());
+                WRITER.writeValue(generator, node);
+                count++;
+            }
+            catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        }
+
+        int getCount() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package edu.hm.hafner.grading.github;
+
+import org.apache.commons.lang3.StringUtils;
+
+import edu.hm.hafner.grading.LogHandler;
+import edu.hm.hafner.grading.github.RateLimitScheduler.Sleeper;
+import edu.hm.hafner.util.FilteredLog;
+import edu.hm.hafner.util.VisibleForTesting;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.kohsuke.github.GHCheckRunBuilder.Annotation;
+
+/**
+ * Publishes the results that have been queued in an {@link Outbox} by previous runs of the action. The outbox
+ * directory is set by the environment variable {@code OUTBOX}. Each entry is sent up to {@code OUTBOX_ATTEMPTS}
+ * times (default: 3), the delay between the attempts starts with one second and doubles after each attempt. Entries
+ * that could not be published remain in the outbox and the runner fails.
+ *
+ * @author Ullrich Hafner
+ */
+class OutboxRunner {
+    private static final int DEFAULT_ATTEMPTS = 3;
+    private static final Duration BACKOFF = Duration.ofSeconds(1);
+
+    private final PrintStream outputStream;
+    private final Map<String, String> environment;
+    private final Sleeper sleeper;
+
+    /**
+     * Creates a new instance of {@link OutboxRunner}.
+     *
+     * @param printStream
+     *         the stream to write the log messages to
+     * @param environment
+     *         the environment variables that contain the options of the action
+     */
+    @SuppressWarnings("PMD.DoNotUseThreads")
+    OutboxRunner(final PrintStream printStream, final Map<String, String> environment) {
+        this(printStream, environment, duration -> Thread.sleep(duration.toMillis()));
+    }
+
+    @VisibleForTesting
+    OutboxRunner(final PrintStream printStream, final Map<String, String> environment, final Sleeper sleeper) {
+        outputStream = printStream;
+        this.environment = environment;
+        this.sleeper = sleeper;
+    }
+
+    /**
+     * Publishes all entries of the outbox.
+     *
+     * @throws IllegalStateException
+     *         if some entries could not be published
+     */
+    void run() {
+        var log = new FilteredLog("Outbox Errors:");
+        var logHandler = new LogHandler(outputStream, log);
+
+        drain(log);
+        logHandler.print();
+
+        if (log.hasErrors()) {
+            throw new IllegalStateException("Publishing the outbox finished with some errors in the log");
+        }
+    }
+
+    private void drain(final FilteredLog log) {
+        var directory = getEnv("OUTBOX");
+        if (directory.isBlank()) {
+            log.logError("No OUTBOX defined - skipping");
+
+            return;
+        }
+
+        var token = getEnv("GITHUB_TOKEN");
+        if (token.isBlank()) {
+            log.logError("No valid GITHUB_TOKEN found - skipping");
+
+            return;
+        }
+
+        try {
+            var client = GitHubClient.get(getEnv("GITHUB_API_URL"), token);
+            var performance = new PerformanceRecorder();
+            var remaining = new Outbox(Path.of(directory), log).drain(
+                    (publication, annotations, attemptLog) -> publish(publication, annotations, token,
+                            performance, attemptLog),
+                    getAttempts(), BACKOFF, sleeper);
+            if (remaining > 0) {
+                log.logInfo("%d entries remain in outbox '%s'", remaining, directory);
+            }
+            client.logRateLimitStatistics(log); // the statistics are shared by all clients of the connection
+        }
+        catch (IOException exception) {
+            GitHubPublisher.logException(log, exception, "Could not connect to GitHub");
+        }
+    }
+
+    // each attempt uses a new client, so that the repositories and pull requests of a previous attempt are not reused
+    private void publish(final Publication publication, final Consumer<Consumer<RankedAnnotation>> annotations,
+            final String token, final PerformanceRecorder performance, final FilteredLog log) {
+        try {
+            var client = GitHubClient.get(getEnv("GITHUB_API_URL"), token);
+            new ResultPublisher(client, getEnv("COMMENT_STATE_FILE"), performance, log).resume(publication,
+                    consumer -> select(client, publication, annotations, consumer, log));
+        }
+        catch (IOException exception) {
+            GitHubPublisher.logException(log, exception, "Could not connect to GitHub");
+        }
+    }
+
+    // the changed lines are fetched only if the annotations are uploaded, i.e., not if the check run already exists
+    private void select(final GitHubClient client, final Publication publication,
+            final Consumer<Consumer<RankedAnnotation>> annotations, final Consumer<Annotation> consumer,
+            final FilteredLog log) {
+        new AnnotationSelector(consumer, ChangedLines.forAnnotations(client, publication, log),
+                publication.maxWarningAnnotations(), publication.maxCoverageAnnotations(), log).select(annotations);
+    }
+
+    private int getAttempts() {
+        var attempts = getEnv("OUTBOX_ATTEMPTS");
+        if (StringUtils.isNumeric(attempts) && Integer.parseInt(attempts) > 0) {
+            return Integer.parseInt(attempts);
+        }
+        return DEFAULT_ATTEMPTS;
+    }
+
+    private String getEnv(final String key) {
+        return StringUtils.defaultString(environment.get(key));
+    }
+}
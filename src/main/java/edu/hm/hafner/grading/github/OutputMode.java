@@ -0,0 +1,53 @@
+package edu.hm.hafner.grading.github;
+
+import org.apache.commons.lang3.StringUtils;
+
+import edu.hm.hafner.util.FilteredLog;
+
+import java.util.Locale;
+
+/**
+ * Determines where the results of the action are published.
+ *
+ * @author Ullrich Hafner
+ */
+enum OutputMode {
+    /** Creates a check run and a pull request comment using the GitHub API. */
+    API,
+    /** Writes the results to the summary and the outputs of the workflow step, no GitHub API calls are required. */
+    STEP,
+    /** Publishes the results using the GitHub API and writes them to the workflow step. */
+    ALL;
+
+    /**
+     * Returns the output mode with the specified name. If the name is blank or invalid, then {@link #API} is returned.
+     *
+     * @param name
+     *         the name of the output mode (case-insensitive)
+     * @param log
+     *         the logger
+     *
+     * @return the output mode
+     */
+    static OutputMode fromName(final String name, final FilteredLog log) {
+        if (StringUtils.isBlank(name)) {
+            return API;
+        }
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ENGLISH));
+        }
+        catch (IllegalArgumentException exception) {
+            log.logInfo("Ignoring invalid value of OUTPUT_MODE: '%s'", name);
+
+            return API;
+        }
+    }
+
+    boolean usesApi() {
+        return this != STEP;
+    }
+
+    boolean usesStep() {
+        return this != API;
+    }
+}
@@ -0,0 +1,128 @@
+package edu.hm.hafner.grading.github;
+
+import edu.hm.hafner.analysis.Report;
+import edu.hm.hafner.coverage.Node;
+import edu.hm.hafner.grading.AnalysisConfiguration;
+import edu.hm.hafner.grading.Configuration;
+import edu.hm.hafner.grading.CoverageConfiguration;
+import edu.hm.hafner.grading.MetricConfiguration;
+import edu.hm.hafner.grading.TestConfiguration;
+import edu.hm.hafner.grading.ToolConfiguration;
+import edu.hm.hafner.grading.ToolParser;
+import edu.hm.hafner.util.FilteredLog;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+
+/**
+ * A {@link ToolParser} that reads the reports of all tools of a configuration in parallel. When the parser is created,
+ * a task is started for each tool that reads the reports of the tool with another parser. The results are then
+ * returned in the order that is requested by the {@link edu.hm.hafner.grading.AggregatedScore}. Each task writes its
+ * log messages into a separate log that is appended to the log of the score when the result is requested. So the
+ * results and the log are the same as if all reports would have been read sequentially.
+ *
+ * @author Ullrich Hafner
+ */
+class ParallelToolParser implements ToolParser {
+    private final ToolParser parser;
+    private final Map<ToolConfiguration, Future<Result<Report>>> reports = new HashMap<>();
+    private final Map<ToolConfiguration, Future<Result<Node>>> nodes = new HashMap<>();
+
+    /**
+     * Creates a new instance of {@link ParallelToolParser} and starts reading the reports of all tools.
+     *
+     * @param parser
+     *         the parser that reads the reports of a single tool
+     * @param parallelism
+     *         the number of tools that will be read in parallel
+     * @param configuration
+     *         the autograding configuration that contains the tools
+     */
+    @SuppressWarnings({"PMD.DoNotUseThreads", "PMD.CloseResource"})
+    ParallelToolParser(final ToolParser parser, final int parallelism, final String configuration) {
+        this.parser = parser;
+
+        var executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            submit(executor, nodes, TestConfiguration.from(configuration), parser::readNode);
+            submit(executor, nodes, CoverageConfiguration.from(configuration), parser::readNode);
+            submit(executor, reports, AnalysisConfiguration.from(configuration), parser::readReport);
+            submit(executor, nodes, MetricConfiguration.from(configuration), parser::readNode);
+        }
+        finally {
+            executor.shutdown(); // already submitted tasks will be completed
+        }
+    }
+
+    @SuppressWarnings("PMD.DoNotUseThreads")
+    private <T> void submit(final ExecutorService executor, final Map<ToolConfiguration, Future<Result<T>>> results,
+            final List<? extends Configuration> configurations,
+            final BiFunction<ToolConfiguration, FilteredLog, T> reader) {
+        for (Configuration configuration : configurations) {
+            for (ToolConfiguration tool : configuration.getTools()) {
+                results.computeIfAbsent(tool, key -> executor.submit(() -> {
+                    var log = new FilteredLog();
+                    return new Result<>(reader.apply(key, log), log);
+                }));
+            }
+        }
+    }
+
+    @Override
+    public Report readReport(final ToolConfiguration tool, final FilteredLog log) {
+        var result = reports.remove(tool);
+        if (result == null) { // tool has been read already or is not part of the configuration
+            return parser.readReport(tool, log);
+        }
+        return get(result, log);
+    }
+
+    @Override
+    public Node readNode(final ToolConfiguration tool, final FilteredLog log) {
+        var result = nodes.remove(tool);
+        if (result == null) { // tool has been read already or is not part of the configuration
+            return parser.readNode(tool, log);
+        }
+        return get(result, log);
+    }
+
+    @SuppressWarnings({"PMD.DoNotUseThreads", "PMD.PreserveStackTrace"})
+    private <T> T get(final Future<Result<T>> future, final FilteredLog log) {
+        try {
+            var result = future.get();
+            result.log().getInfoMessages().forEach(log::logInfo);
+            result.log().getErrorMessages().forEach(log::logError);
+            return result.value();
+        }
+        catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+
+            throw new IllegalStateException("Interrupted while reading the reports", exception);
+        }
+        catch (ExecutionException exception) {
+            if (exception.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException; // e.g., a parsing exception that is handled by the runner
+            }
+            throw new IllegalStateException("Can't read the reports", exception);
+        }
+    }
+
+    /**
+     * The result of a tool and the log messages that have been created while reading the reports.
+     *
+     * @param value
+     *         the result of the tool
+     * @param log
+     *         the log messages of the tool
+     * @param <T>
+     *         the type of the result
+     */
+    private record Result<T>(T value, FilteredLog log) {
+    }
+}
@@ -0,0 +1,71 @@
+package edu.hm.hafner.grading.github;
+
+import edu.hm.hafner.analysis.registry.ParserRegistry;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.Properties;
+
+/**
+ * Provides the display names of the static analysis parsers. Creating a {@link ParserRegistry} is expensive since all
+ * parser descriptors need to be loaded. Therefore, the names are read from an index that is created at build time
+ * (see {@link ParserNamesGenerator}). The registry is only created if the index is not available.
+ *
+ * @author Ullrich Hafner
+ */
+final class ParserNames {
+    static final String INDEX = "parser-names.properties";
+
+    /**
+     * Returns the display name of the parser with the specified ID.
+     *
+     * @param id
+     *         the ID of the parser
+     *
+     * @return the display name of the parser, or an empty optional if there is no such parser
+     */
+    static Optional<String> getName(final String id) {
+        return Optional.ofNullable(Index.NAMES.getProperty(id));
+    }
+
+    /**
+     * Creates the index of the parser names using the {@link ParserRegistry}.
+     *
+     * @return the display names of all parsers, keyed by the parser ID
+     */
+    static Properties createIndex() {
+        var names = new Properties();
+        for (var descriptor : new ParserRegistry().getAllDescriptors()) {
+            names.setProperty(descriptor.getId(), descriptor.getName());
+        }
+        return names;
+    }
+
+    private ParserNames() {
+        // prevents instantiation
+    }
+
+    // initialized on first use, so that the index is not loaded if no parser name is required
+    private static final class Index {
+        private static final Properties NAMES = load();
+
+        private static Properties load() {
+            try (var stream = ParserNames.class.getResourceAsStream(INDEX)) {
+                if (stream == null) {
+                    return createIndex(); // index has not been generated, e.g., when running in an IDE
+                }
+                try (var reader = new InputStreamReader(stream, StandardCharsets.UTF_8)) {
+                    var names = new Properties();
+                    names.load(reader);
+                    return names;
+                }
+            }
+            catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package edu.hm.hafner.grading.github;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Creates the index of the parser names that is read by {@link ParserNames}. This generator is called during the
+ * build, the index is stored as a resource in the class path.
+ *
+ * @author Ullrich Hafner
+ */
+final class ParserNamesGenerator {
+    /**
+     * Creates the index of the parser names.
+     *
+     * @param args
+     *         the class output folder of the build
+     *
+     * @throws IOException
+     *         if the index could not be written
+     */
+    public static void main(final String... args) throws IOException {
+        var folder = Path.of(args[0]).resolve(ParserNames.class.getPackageName().replace('.', '/'));
+        Files.createDirectories(folder);
+        var index = folder.resolve(ParserNames.INDEX);
+        try (var writer = Files.newBufferedWriter(index, StandardCharsets.UTF_8)) {
+            ParserNames.createIndex().store(writer,
+                    "Display names of the parsers of the ParserRegistry, generated during the build");
+        }
+    }
+
+    private ParserNamesGenerator() {
+        // prevents instantiation
+    }
+}
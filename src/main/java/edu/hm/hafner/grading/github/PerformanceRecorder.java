@@ -0,0 +1,180 @@
+package edu.hm.hafner.grading.github;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Records the number of invocations and the elapsed time of the different phases of the action, e.g., reading the
+ * configuration, parsing the reports of a tool, rendering the report, or calling the GitHub API. The recorded
+ * measurements can be exported as JSON or as a Markdown table. Phases are reported in the order of their first
+ * invocation. All methods are thread safe.
+ *
+ * @author Ullrich Hafner
+ */
+class PerformanceRecorder {
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Map<String, Phase> phases = new ConcurrentHashMap<>();
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    /**
+     * Measures the specified phase.
+     *
+     * @param name
+     *         the name of the phase
+     * @param phase
+     *         the phase to measure
+     * @param <T>
+     *         the type of the result
+     *
+     * @return the result of the phase
+     */
+    <T> T measure(final String name, final Supplier<T> phase) {
+        var start = System.nanoTime();
+        try {
+            return phase.get();
+        }
+        finally {
+            record(name, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Measures the specified phase that has no result.
+     *
+     * @param name
+     *         the name of the phase
+     * @param phase
+     *         the phase to measure
+     */
+    void run(final String name, final Runnable phase) {
+        var start = System.nanoTime();
+        try {
+            phase.run();
+        }
+        finally {
+            record(name, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Records an invocation of the specified phase.
+     *
+     * @param name
+     *         the name of the phase
+     * @param nanos
+     *         the elapsed time in nanoseconds
+     */
+    void record(final String name, final long nanos) {
+        phases.computeIfAbsent(name, key -> new Phase(sequence.getAndIncrement())).add(1, nanos, nanos);
+    }
+
+    /**
+     * Returns the measurements of all phases.
+     *
+     * @return the measurements
+     */
+    List<Measurement> getMeasurements() {
+        return phases.entrySet().stream()
+                .sorted(Comparator.comparingInt(entry -> entry.getValue().order))
+                .map(entry -> entry.getValue().toMeasurement(entry.getKey()))
+                .toList();
+    }
+
+    /**
+     * Returns the measurements of all phases as JSON document.
+     *
+     * @return the measurements in JSON format
+     */
+    String toJson() {
+        try {
+            return new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                    .writeValueAsString(Map.of("phases", getMeasurements()));
+        }
+        catch (JsonProcessingException exception) {
+            throw new IllegalStateException("Can't serialize the performance measurements", exception);
+        }
+    }
+
+    /**
+     * Returns the measurements of all phases as Markdown table.
+     *
+     * @return the measurements as Markdown table
+     */
+    String toMarkdown() {
+        var table = new StringBuilder(1024)
+                .append("| Phase | Count | Total (ms) | Max (ms) |\n|:------|------:|-----------:|---------:|\n");
+        for (Measurement measurement : getMeasurements()) {
+            table.append(String.format(Locale.ENGLISH, "| %s | %d | %.1f | %.1f |%n",
+                    measurement.name(), measurement.count(), measurement.totalMillis(), measurement.maxMillis()));
+        }
+        return table.toString();
+    }
+
+    /**
+     * The measurements of a phase.
+     *
+     * @param name
+     *         the name of the phase
+     * @param count
+     *         the number of invocations
+     * @param totalNanos
+     *         the total elapsed time in nanoseconds
+     * @param maxNanos
+     *         the maximum elapsed time of a single invocation in nanoseconds
+     */
+    record Measurement(String name, long count, long totalNanos, long maxNanos) {
+        /**
+         * Returns the total elapsed time in milliseconds.
+         *
+         * @return the total elapsed time
+         */
+        @JsonProperty
+        public double totalMillis() {
+            return totalNanos / NANOS_PER_MILLI;
+        }
+
+        /**
+         * Returns the maximum elapsed time of a single invocation in milliseconds.
+         *
+         * @return the maximum elapsed time
+         */
+        @JsonProperty
+        public double maxMillis() {
+            return maxNanos / NANOS_PER_MILLI;
+        }
+    }
+
+    private static final class Phase {
+        private final int order;
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        Phase(final int order) {
+            this.order = order;
+        }
+
+        void add(final long invocations, final long nanos, final long max) {
+            count.addAndGet(invocations);
+            totalNanos.addAndGet(nanos);
+            maxNanos.accumulateAndGet(max, Math::max);
+        }
+
+        Measurement toMeasurement(final String name) {
+            return new Measurement(name, count.get(), totalNanos.get(), maxNanos.get());
+        }
+    }
+}
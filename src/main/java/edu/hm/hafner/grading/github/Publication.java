@@ -0,0 +1,48 @@
+package edu.hm.hafner.grading.github;
+
+import org.kohsuke.github.GHCheckRun.Conclusion;
+
+/**
+ * The results that are published for a commit: the check run (with its annotations) and the pull request comment. A
+ * publication can be serialized to JSON, so that it can be stored in an {@link Outbox} and published later. The
+ * annotations are not part of the publication, since they are streamed to GitHub or to the outbox. The options to
+ * select the annotations are part of the publication, since an {@link Outbox} selects the annotations when the
+ * publication is sent.
+ *
+ * @param repository
+ *         the name of the repository, e.g. {@code uhafner/autograding-github-action}
+ * @param sha
+ *         the SHA of the commit to attach the check run to
+ * @param title
+ *         the name of the check run
+ * @param conclusion
+ *         the conclusion of the check run
+ * @param textSummary
+ *         the title of the check run output
+ * @param summary
+ *         the summary of the check run output
+ * @param details
+ *         the details of the check run output
+ * @param digest
+ *         the digest of the results (see {@link CheckRunDigest})
+ * @param prNumber
+ *         the number of the pull request to comment, or an empty string if no comment should be created
+ * @param strategy
+ *         the strategy to handle the comment of a previous run
+ * @param prSummary
+ *         the summary to show in the pull request comment
+ * @param versionLink
+ *         the link to the version of the action that created the comment
+ * @param changedLinesOnly
+ *         determines whether only the annotations of the changed lines of the pull request should be published
+ * @param maxWarningAnnotations
+ *         the maximum number of warning annotations, unlimited if empty
+ * @param maxCoverageAnnotations
+ *         the maximum number of coverage annotations, unlimited if empty
+ * @author Ullrich Hafner
+ */
+@SuppressWarnings("checkstyle:ParameterNumber")
+record Publication(String repository, String sha, String title, Conclusion conclusion, String textSummary,
+        String summary, String details, String digest, String prNumber, String strategy, String prSummary,
+        String versionLink, boolean changedLinesOnly, String maxWarningAnnotations, String maxCoverageAnnotations) {
+}
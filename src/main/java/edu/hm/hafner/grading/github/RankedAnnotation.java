@@ -0,0 +1,25 @@
+package edu.hm.hafner.grading.github;
+
+import org.kohsuke.github.GHCheckRunBuilder.Annotation;
+
+/**
+ * An annotation whose selection has been deferred: the changed lines of the pull request and the limits for the
+ * number of annotations are applied later by an {@link AnnotationSelector}.
+ *
+ * @param annotation
+ *         the annotation in the format of the GitHub Checks API
+ * @param path
+ *         the path of the annotated file, relative to the repository root
+ * @param lineStart
+ *         the first annotated line, 0 if the whole file is annotated
+ * @param lineEnd
+ *         the last annotated line
+ * @param isWarning
+ *         determines whether the annotation is a warning or a coverage annotation
+ * @param priority
+ *         the priority of the annotation without the priority of changed files (see {@link AnnotationBudget})
+ * @author Ullrich Hafner
+ */
+record RankedAnnotation(Annotation annotation, String path, int lineStart, int lineEnd, boolean isWarning,
+                        long priority) {
+}
@@ -0,0 +1,254 @@
+package edu.hm.hafner.grading.github;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleSupplier;
+
+import org.kohsuke.github.connector.GitHubConnector;
+import org.kohsuke.github.connector.GitHubConnectorRequest;
+import org.kohsuke.github.connector.GitHubConnectorResponse;
+
+/**
+ * A {@link GitHubConnector} that retries requests that have been rejected by the primary or secondary rate limits of
+ * GitHub. The delay before the next attempt is determined by the following rules:
+ * <ol>
+ *     <li>If the response contains a {@code Retry-After} header, then the specified number of seconds is used.</li>
+ *     <li>If the response reports that no requests remain ({@code X-RateLimit-Remaining: 0}), then the scheduler waits
+ *     until the time given in {@code X-RateLimit-Reset}.</li>
+ *     <li>If the message of the response reports a secondary rate limit without any of these headers, then the
+ *     scheduler waits at least one minute as recommended by GitHub and doubles this delay for every further
+ *     attempt.</li>
+ *     <li>Otherwise (429 or a temporary server error) an exponential backoff with jitter is used, so that the jobs
+ *     sharing a token do not retry at the same time.</li>
+ * </ol>
+ * Requests that modify a resource (e.g., POST or PATCH) are retried only if the response explicitly reports a rate
+ * limit (rules 1 to 3). A gateway error does not tell whether GitHub already processed such a request, so a retry
+ * might create a duplicate check run or comment.
+ * If the required delay exceeds {@link #MAX_DELAY} or all attempts have been used, then the last response is returned
+ * unchanged.
+ *
+ * @author Ullrich Hafner
+ */
+@SuppressWarnings("PMD.DoNotUseThreads")
+class RateLimitScheduler implements GitHubConnector {
+    static final int MAX_RETRIES = 5;
+    static final Duration MAX_DELAY = Duration.ofMinutes(2);
+
+    private static final Duration INITIAL_BACKOFF = Duration.ofSeconds(1);
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(30);
+    private static final Duration SECONDARY_RATE_LIMIT_BACKOFF = Duration.ofMinutes(1);
+    private static final String[] SECONDARY_RATE_LIMIT_MESSAGES = {"secondary rate limit", "abuse detection"};
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private static final String NO_REMAINING_REQUESTS = "0";
+    private static final int FORBIDDEN = 403;
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final int BAD_GATEWAY = 502;
+    private static final int SERVICE_UNAVAILABLE = 503;
+    private static final int GATEWAY_TIMEOUT = 504;
+
+    private final GitHubConnector delegate;
+    private final Sleeper sleeper;
+    private final DoubleSupplier jitter;
+    private final Clock clock;
+
+    private final AtomicLong waitTime = new AtomicLong();
+    private final AtomicInteger retries = new AtomicInteger();
+
+    RateLimitScheduler(final GitHubConnector delegate) {
+        this(delegate, duration -> Thread.sleep(duration.toMillis()), RANDOM::nextDouble, Clock.systemUTC());
+    }
+
+    RateLimitScheduler(final GitHubConnector delegate, final Sleeper sleeper, final DoubleSupplier jitter,
+            final Clock clock) {
+        this.delegate = delegate;
+        this.sleeper = sleeper;
+        this.jitter = jitter;
+        this.clock = clock;
+    }
+
+    @Override
+    public GitHubConnectorResponse send(final GitHubConnectorRequest request) throws IOException {
+        for (int attempt = 1; ; attempt++) {
+            var response = delegate.send(request);
+            var delay = getDelay(response, attempt, isIdempotent(request));
+            if (delay.isEmpty() || attempt > MAX_RETRIES) {
+                return response;
+            }
+            response.close();
+
+            waitFor(delay.get());
+        }
+    }
+
+    private void waitFor(final Duration delay) throws InterruptedIOException {
+        try {
+            sleeper.sleep(delay);
+
+            waitTime.addAndGet(delay.toMillis());
+            retries.incrementAndGet();
+        }
+        catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+
+            var interrupted = new InterruptedIOException("Interrupted while waiting for the GitHub rate limit");
+            interrupted.initCause(exception);
+            throw interrupted;
+        }
+    }
+
+    private boolean isIdempotent(final GitHubConnectorRequest request) {
+        return "GET".equals(request.method()) || "HEAD".equals(request.method());
+    }
+
+    private Optional<Duration> getDelay(final GitHubConnectorResponse response, final int attempt,
+            final boolean isIdempotent) {
+        var status = response.statusCode();
+        if (status == FORBIDDEN || status == TOO_MANY_REQUESTS) {
+            return getRejectionDelay(response, attempt, isIdempotent);
+        }
+        if (isIdempotent && (status == BAD_GATEWAY || status == SERVICE_UNAVAILABLE || status == GATEWAY_TIMEOUT)) {
+            return Optional.of(getBackoff(attempt));
+        }
+        return Optional.empty();
+    }
+
+    private Optional<Duration> getRejectionDelay(final GitHubConnectorResponse response, final int attempt,
+            final boolean isIdempotent) {
+        var rateLimit = getRateLimitDelay(response);
+        if (rateLimit.isPresent()) {
+            return limit(rateLimit.get());
+        }
+        if (isSecondaryRateLimit(response)) {
+            return Optional.of(getSecondaryRateLimitBackoff(attempt));
+        }
+        if (response.statusCode() == FORBIDDEN || !isIdempotent) {
+            return Optional.empty(); // no rate limit, the token does not have the required permissions
+        }
+        return Optional.of(getBackoff(attempt));
+    }
+
+    private Optional<Duration> getRateLimitDelay(final GitHubConnectorResponse response) {
+        var retryAfter = parseSeconds(response.header("Retry-After"));
+        if (retryAfter.isPresent()) {
+            return Optional.of(Duration.ofSeconds(retryAfter.get()));
+        }
+        if (!NO_REMAINING_REQUESTS.equals(response.header("X-RateLimit-Remaining"))) {
+            return Optional.empty();
+        }
+        return parseSeconds(response.header("X-RateLimit-Reset"))
+                .map(reset -> Duration.between(clock.instant(), Instant.ofEpochSecond(reset)))
+                .map(delay -> delay.isNegative() ? Duration.ZERO : delay.plusSeconds(1));
+    }
+
+    // the responses of the hub4j connectors buffer the body, so it can be read again by the caller
+    private boolean isSecondaryRateLimit(final GitHubConnectorResponse response) {
+        if (response instanceof GitHubConnectorResponse.ByteArrayResponse) {
+            try (var body = response.bodyStream()) {
+                return StringUtils.containsAnyIgnoreCase(
+                        new String(body.readAllBytes(), StandardCharsets.UTF_8), SECONDARY_RATE_LIMIT_MESSAGES);
+            }
+            catch (IOException exception) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the delay before retrying a request that has been rejected by a secondary rate limit without a
+     * {@code Retry-After} header: GitHub recommends waiting at least one minute and increasing the delay
+     * exponentially. The random part spreads the retries of jobs that share a token.
+     *
+     * @param attempt
+     *         the number of the failed attempt
+     *
+     * @return the delay before the next attempt, at most {@link #MAX_DELAY}
+     */
+    private Duration getSecondaryRateLimitBackoff(final int attempt) {
+        var exponential = SECONDARY_RATE_LIMIT_BACKOFF.multipliedBy(1L << Math.min(attempt - 1, 10));
+        var backoff = exponential.plusMillis(Math.round(exponential.toMillis() / 2.0 * jitter.getAsDouble()));
+
+        return backoff.compareTo(MAX_DELAY) > 0 ? MAX_DELAY : backoff;
+    }
+
+    private Optional<Duration> limit(final Duration delay) {
+        if (delay.compareTo(MAX_DELAY) > 0) {
+            return Optional.empty();
+        }
+        return Optional.of(delay);
+    }
+
+    /**
+     * Returns an exponential backoff with "equal jitter": half of the delay is fixed, the other half is random.
+     *
+     * @param attempt
+     *         the number of the failed attempt
+     *
+     * @return the delay before the next attempt
+     */
+    private Duration getBackoff(final int attempt) {
+        var exponential = INITIAL_BACKOFF.multipliedBy(1L << Math.min(attempt - 1, 10));
+        var backoff = exponential.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : exponential;
+        var half = backoff.toMillis() / 2;
+
+        return Duration.ofMillis(half + Math.round(half * jitter.getAsDouble()));
+    }
+
+    private Optional<Long> parseSeconds(final String value) {
+        if (StringUtils.isNumeric(value)) {
+            try {
+                return Optional.of(Long.parseLong(value));
+            }
+            catch (NumberFormatException exception) {
+                return Optional.empty();
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Returns the total time that has been spent waiting for the rate limits.
+     *
+     * @return the total wait time
+     */
+    Duration getWaitTime() {
+        return Duration.ofMillis(waitTime.get());
+    }
+
+    /**
+     * Returns the number of requests that have been retried.
+     *
+     * @return the number of retries
+     */
+    int getRetries() {
+        return retries.get();
+    }
+
+    /**
+     * Pauses the current thread before the next attempt.
+     */
+    @FunctionalInterface
+    interface Sleeper {
+        /**
+         * Pauses the current thread for the specified duration.
+         *
+         * @param duration
+         *         the duration to wait
+         *
+         * @throws InterruptedException
+         *         if the thread has been interrupted
+         */
+        void sleep(Duration duration) throws InterruptedException;
+    }
+}
@@ -0,0 +1,271 @@
+package edu.hm.hafner.grading.github;
+
+import org.apache.commons.lang3.StringUtils;
+
+import edu.hm.hafner.analysis.FileReaderFactory;
+import edu.hm.hafner.analysis.ParsingException;
+import edu.hm.hafner.analysis.Report;
+import edu.hm.hafner.analysis.registry.ParserRegistry;
+import edu.hm.hafner.coverage.ContainerNode;
+import edu.hm.hafner.coverage.CoverageParser.ProcessingMode;
+import edu.hm.hafner.coverage.FileNode;
+import edu.hm.hafner.coverage.Metric;
+import edu.hm.hafner.coverage.Node;
+import edu.hm.hafner.coverage.Value;
+import edu.hm.hafner.grading.FileSystemToolParser;
+import edu.hm.hafner.grading.ToolConfiguration;
+import edu.hm.hafner.grading.ToolParser;
+import edu.hm.hafner.util.FilteredLog;
+import edu.hm.hafner.util.PathUtil;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+
+/**
+ * A {@link ToolParser} that reads the report files of the tools in the same way as the {@link FileSystemToolParser}.
+ * However, the {@link FileSystemToolParser} always searches for the report files in the whole working directory. This
+ * parser searches only in the report directory and its subdirectories. So the patterns of the tools must have been
+ * relocated to the report directory (see {@link ReportPatterns}): the paths of the files start with the report
+ * directory, e.g. {@code ./work/repository/target/checkstyle-result.xml}.
+ *
+ * <p>
+ * If the parallelism is greater than one, then the report files of a tool are parsed in parallel. The results and
+ * the log messages of the files are merged in the order of the file paths, so they are the same as if the files would
+ * have been parsed sequentially.
+ * </p>
+ *
+ * <p>
+ * If trimming is enabled, then the coverage tree of each report file is trimmed right after the file has been parsed
+ * (see {@link CoverageTrimmer}). So the complete trees of the other files do not need to be kept in memory until the
+ * trees are merged. If several report files contain the same source file, then the trimmed trees can't be merged. In
+ * this case, the report files are parsed again and the merged tree is trimmed.
+ * </p>
+ *
+ * @author Ullrich Hafner
+ */
+class ReportDirectoryToolParser implements ToolParser {
+    private static final PathUtil PATH_UTIL = new PathUtil();
+    private static final ParserRegistry PARSER_REGISTRY = new ParserRegistry(); // read-only after construction
+    private static final int SEQUENTIAL = 1;
+
+    private final Path reportDirectory;
+    private final int parallelism;
+    private final boolean isTrimming;
+
+    /**
+     * Creates a new instance of {@link ReportDirectoryToolParser} that parses the report files sequentially.
+     *
+     * @param reportDirectory
+     *         the directory that contains the report files, relative to the working directory (see
+     *         {@link ReportPatterns#resolve(String)})
+     */
+    ReportDirectoryToolParser(final Path reportDirectory) {
+        this(reportDirectory, SEQUENTIAL, false);
+    }
+
+    /**
+     * Creates a new instance of {@link ReportDirectoryToolParser}.
+     *
+     * @param reportDirectory
+     *         the directory that contains the report files, relative to the working directory (see
+     *         {@link ReportPatterns#resolve(String)})
+     * @param parallelism
+     *         the number of report files of a tool that will be parsed in parallel
+     * @param isTrimming
+     *         determines whether the coverage tree of each report file should be trimmed
+     */
+    ReportDirectoryToolParser(final Path reportDirectory, final int parallelism, final boolean isTrimming) {
+        this.reportDirectory = reportDirectory;
+        this.parallelism = parallelism;
+        this.isTrimming = isTrimming;
+    }
+
+    @Override
+    public Report readReport(final ToolConfiguration tool, final FilteredLog log) {
+        var descriptor = PARSER_REGISTRY.get(tool.getId());
+        var name = StringUtils.defaultIfBlank(tool.getName(), descriptor.getName());
+        var total = new Report(tool.getId(), name);
+        total.setIcon(tool.getIcon());
+
+        var reports = parse(find(name, tool.getPattern(), log), (file, fileLog) -> {
+            var report = descriptor.createParser().parse(new FileReaderFactory(file));
+            fileLog.logInfo("- %s: %s", PATH_UTIL.getRelativePath(file), report.getSummary());
+            return report;
+        }, log);
+        reports.forEach(total::addAll);
+        log.logInfo("-> %s", total);
+        return total;
+    }
+
+    @Override
+    public Node readNode(final ToolConfiguration tool, final FilteredLog log) {
+        var files = find(getDisplayName(tool), tool.getPattern(), log);
+        var nodes = parse(files, (file, fileLog) -> parseNode(tool, file, isTrimming, fileLog), log);
+        var container = new ContainerNode(getDisplayName(tool));
+        if (nodes.isEmpty()) {
+            return container;
+        }
+        Node merged;
+        if (isTrimming && containsSameFiles(nodes)) {
+            log.logInfo("Several reports of %s contain the same files, trimming the merged coverage tree",
+                    getDisplayName(tool));
+            var complete = parse(files, (file, fileLog) -> parseNode(tool, file, false, fileLog), new FilteredLog());
+            merged = CoverageTrimmer.trim(Node.merge(complete));
+        }
+        else {
+            merged = Node.merge(nodes);
+        }
+        log.logInfo("-> %s Total: %s", getDisplayName(tool), extractMetric(tool, merged));
+        container.addChild(merged);
+        return container;
+    }
+
+    private Node parseNode(final ToolConfiguration tool, final Path file, final boolean trim, final FilteredLog log) {
+        var parser = new edu.hm.hafner.coverage.registry.ParserRegistry().get(
+                StringUtils.upperCase(tool.getId()), ProcessingMode.IGNORE_ERRORS);
+        try (var reader = new FileReaderFactory(file).create()) {
+            var node = parser.parse(reader, file.toString(), log);
+            log.logInfo("- %s: %s", PATH_UTIL.getRelativePath(file), extractMetric(tool, node));
+            return trim ? CoverageTrimmer.trim(node) : node;
+        }
+        catch (IOException exception) {
+            throw new ParsingException(exception);
+        }
+    }
+
+    // each file is parsed with a separate log, the logs are appended in the order of the files
+    @SuppressWarnings({"PMD.DoNotUseThreads", "PMD.CloseResource"})
+    private <T> List<T> parse(final List<Path> files, final BiFunction<Path, FilteredLog, T> fileParser,
+            final FilteredLog log) {
+        if (parallelism <= SEQUENTIAL || files.size() <= 1) {
+            return files.stream().map(file -> fileParser.apply(file, log)).toList();
+        }
+
+        var executor = Executors.newFixedThreadPool(Math.min(parallelism, files.size()));
+        try {
+            var results = new ArrayList<Future<Result<T>>>();
+            for (Path file : files) {
+                results.add(executor.submit(() -> {
+                    var fileLog = new FilteredLog();
+                    return new Result<>(fileParser.apply(file, fileLog), fileLog);
+                }));
+            }
+            var values = new ArrayList<T>();
+            for (Future<Result<T>> result : results) {
+                values.add(get(result, log));
+            }
+            return values;
+        }
+        finally {
+            executor.shutdownNow(); // the remaining files are not required if parsing of a file failed
+        }
+    }
+
+    @SuppressWarnings({"PMD.DoNotUseThreads", "PMD.PreserveStackTrace"})
+    private <T> T get(final Future<Result<T>> future, final FilteredLog log) {
+        try {
+            var result = future.get();
+            result.log().getInfoMessages().forEach(log::logInfo);
+            result.log().getErrorMessages().forEach(log::logError);
+            return result.value();
+        }
+        catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+
+            throw new IllegalStateException("Interrupted while reading the report files", exception);
+        }
+        catch (ExecutionException exception) {
+            if (exception.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException; // e.g., a parsing exception that is handled by the runner
+            }
+            throw new IllegalStateException("Can't read the report files", exception);
+        }
+    }
+
+    // merging the trees of the same file recomputes the values of the file from the trimmed line counters
+    private boolean containsSameFiles(final List<Node> nodes) {
+        var paths = new HashSet<String>();
+        for (Node node : nodes) {
+            for (FileNode file : node.getAllFileNodes()) {
+                if (!paths.add(file.getRelativePath())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private String getDisplayName(final ToolConfiguration tool) {
+        return StringUtils.defaultIfBlank(tool.getName(), getMetric(tool).getDisplayName());
+    }
+
+    private String extractMetric(final ToolConfiguration tool, final Node node) {
+        return node.getValue(getMetric(tool)).map(Value::toString).orElse("<none>");
+    }
+
+    private Metric getMetric(final ToolConfiguration tool) {
+        return StringUtils.isNotBlank(tool.getMetric()) ? Metric.fromName(tool.getMetric()) : Metric.TESTS;
+    }
+
+    // uses the same messages as the report finder of the FileSystemToolParser
+    private List<Path> find(final String name, final String pattern, final FilteredLog log) {
+        log.logInfo("Searching for %s results matching file name pattern %s", name, pattern);
+        try {
+            var files = findReportFiles(reportDirectory, pattern);
+            if (files.isEmpty()) {
+                log.logError("No matching report files found when using pattern '%s'! Configuration error for '%s'?",
+                        pattern, name);
+            }
+            return files;
+        }
+        catch (IOException exception) {
+            log.logException(exception, "Cannot find files with pattern '%s' in '%s'", pattern, reportDirectory);
+
+            return List.of();
+        }
+    }
+
+    /**
+     * Returns the regular files in the specified directory and its subdirectories that match the specified pattern.
+     *
+     * @param directory
+     *         the directory to search in
+     * @param pattern
+     *         the glob pattern that the paths of the files must match
+     *
+     * @return the matching files, sorted by their paths
+     * @throws IOException
+     *         if the directory could not be read
+     */
+    static List<Path> findReportFiles(final Path directory, final String pattern) throws IOException {
+        var matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (var files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile).filter(matcher::matches).sorted().toList();
+        }
+    }
+
+    /**
+     * The result of a report file and the log messages that have been created while parsing the file.
+     *
+     * @param value
+     *         the result of the file
+     * @param log
+     *         the log messages of the file
+     * @param <T>
+     *         the type of the result
+     */
+    private record Result<T>(T value, FilteredLog log) {
+    }
+}
@@ -0,0 +1,128 @@
+package edu.hm.hafner.grading.github;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.nio.file.Path;
+
+/**
+ * Relocates the file name patterns of all tools in an autograding configuration to a report directory. The patterns
+ * are matched against the paths of the files relative to the working directory of the process: relocated patterns
+ * match only the files below the report directory. This allows grading several repositories in the same process, as
+ * long as the report directories are part of the working directory. The {@link ReportDirectoryToolParser} then
+ * searches for the report files only in the report directory.
+ *
+ * @author Ullrich Hafner
+ */
+final class ReportPatterns {
+    private static final String ANY_DIRECTORIES = "**/";
+    private static final String CURRENT_DIRECTORY = "./";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * Relocates the patterns of all tools in the specified configuration to the specified directory.
+     *
+     * @param configuration
+     *         the autograding configuration in JSON format
+     * @param directory
+     *         the report directory, must be inside the working directory
+     *
+     * @return the configuration with the relocated patterns
+     * @throws IllegalArgumentException
+     *         if the configuration is not valid JSON or the directory is not inside the working directory
+     */
+    static String relocate(final String configuration, final String directory) {
+        var prefix = createPrefix(directory);
+        try {
+            var root = MAPPER.readTree(configuration);
+            relocateTools(root, prefix);
+            return MAPPER.writeValueAsString(root);
+        }
+        catch (JsonProcessingException exception) {
+            throw new IllegalArgumentException("Invalid JSON configuration: " + exception.getOriginalMessage(),
+                    exception);
+        }
+    }
+
+    /**
+     * Relocates the specified pattern to the specified directory. The report finder matches the pattern against the
+     * paths of all files in the working directory, these paths start with {@code ./}. So patterns that start with
+     * {@code **}{@code /} are relocated to the report directory and all of its subdirectories, and patterns that
+     * start with {@code ./} are relocated to the report directory.
+     *
+     * @param pattern
+     *         the pattern to relocate
+     * @param directory
+     *         the report directory, must be inside the working directory
+     *
+     * @return the relocated pattern
+     */
+    static String relocatePattern(final String pattern, final String directory) {
+        return relocatePattern(pattern, createPrefix(directory));
+    }
+
+    private static String relocatePattern(final String pattern, final StringBuilder prefix) {
+        if (pattern.startsWith(ANY_DIRECTORIES)) {
+            return prefix + "{,/**}/" + pattern.substring(ANY_DIRECTORIES.length());
+        }
+        if (pattern.startsWith(CURRENT_DIRECTORY)) {
+            return prefix + "/" + pattern.substring(CURRENT_DIRECTORY.length());
+        }
+        return prefix + "/" + pattern;
+    }
+
+    private static void relocateTools(final JsonNode node, final StringBuilder prefix) {
+        if (node.isObject() && node.path("tools").isArray()) {
+            for (JsonNode tool : node.get("tools")) {
+                if (tool instanceof ObjectNode toolNode && tool.path("pattern").isTextual()) {
+                    toolNode.put("pattern", relocatePattern(tool.get("pattern").asText(), prefix));
+                }
+            }
+        }
+        for (JsonNode child : node) {
+            relocateTools(child, prefix);
+        }
+    }
+
+    /**
+     * Resolves the specified report directory against the working directory. The resolved path starts with
+     * {@code .}, so the paths of the files in this directory match the relocated patterns.
+     *
+     * @param directory
+     *         the report directory, must be inside the working directory
+     *
+     * @return the report directory relative to the working directory
+     * @throws IllegalArgumentException
+     *         if the directory is not inside the working directory
+     */
+    static Path resolve(final String directory) {
+        return Path.of(".").resolve(relativize(directory));
+    }
+
+    private static StringBuilder createPrefix(final String directory) {
+        var prefix = new StringBuilder(".");
+        for (Path segment : relativize(directory)) {
+            var name = segment.toString();
+            if (!name.isEmpty()) {
+                prefix.append('/').append(name.replaceAll("[\\\\*?\\[\\]{},]", "\\\\$0"));
+            }
+        }
+        return prefix;
+    }
+
+    private static Path relativize(final String directory) {
+        var workingDirectory = Path.of("").toAbsolutePath();
+        var reportDirectory = workingDirectory.resolve(directory).normalize();
+        if (!reportDirectory.startsWith(workingDirectory)) {
+            throw new IllegalArgumentException(
+                    "Report directory '%s' is not inside the working directory".formatted(directory));
+        }
+        return workingDirectory.relativize(reportDirectory);
+    }
+
+    private ReportPatterns() {
+        // prevents instantiation
+    }
+}
@@ -0,0 +1,130 @@
+package edu.hm.hafner.grading.github;
+
+import org.apache.commons.lang3.StringUtils;
+
+import edu.hm.hafner.util.FilteredLog;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import org.kohsuke.github.GHCheckRun;
+import org.kohsuke.github.GHCheckRun.Status;
+import org.kohsuke.github.GHCheckRunBuilder.Annotation;
+import org.kohsuke.github.GHCheckRunBuilder.Output;
+
+/**
+ * Sends a {@link Publication} to GitHub: creates the check run, uploads the annotations, and comments the pull request.
+ * The digest of the publication is stored in the check run when the check run is created. If a publication is
+ * resumed, e.g., by a re-run of the workflow or by another attempt to drain an outbox entry, then an existing check
+ * run with the same digest is reused: only the pull request comment is sent again, since this part might have failed
+ * in the previous attempt.
+ *
+ * @author Ullrich Hafner
+ */
+class ResultPublisher {
+    private final GitHubClient client;
+    private final CommentLocator commentLocator;
+    private final PerformanceRecorder performance;
+    private final FilteredLog log;
+
+    ResultPublisher(final GitHubClient client, final String commentStateFile,
+            final PerformanceRecorder performance, final FilteredLog log) {
+        this.client = client;
+        this.commentLocator = new CommentLocator(GitHubPublisher.COMMENT_MARKER, commentStateFile, client::getLogin,
+                log);
+        this.performance = performance;
+        this.log = log;
+    }
+
+    /**
+     * Sends the specified publication. If a check run with the digest of the publication already exists, then only the
+     * pull request comment is sent.
+     *
+     * @param publication
+     *         the publication to send
+     * @param annotations
+     *         passes the annotations of the check run to the specified consumer
+     */
+    void resume(final Publication publication, final Consumer<Consumer<Annotation>> annotations) {
+        Optional<GHCheckRun> existing;
+        try {
+            var repository = client.getRepository(publication.repository());
+            existing = new CheckRunDigest(publication.digest())
+                    .find(repository, publication.sha(), publication.title(), log);
+        }
+        catch (IOException exception) {
+            GitHubPublisher.logException(log, exception, "Could create GitHub comments");
+
+            return;
+        }
+
+        if (existing.isPresent()) {
+            createPublisher(publication).publishComment(existing.get(), publication.prNumber(), publication.strategy(),
+                    publication.prSummary(), publication.versionLink());
+        }
+        else {
+            publish(publication, annotations);
+        }
+    }
+
+    /**
+     * Sends the specified publication. The check runs of the commit are looked up only if the workflow has been
+     * re-run, since only then a check run with the same digest might exist.
+     *
+     * @param publication
+     *         the publication to send
+     * @param annotations
+     *         passes the annotations of the check run to the specified consumer
+     * @param runAttempt
+     *         the attempt of the workflow run ({@code GITHUB_RUN_ATTEMPT})
+     */
+    void publish(final Publication publication, final Consumer<Consumer<Annotation>> annotations,
+            final String runAttempt) {
+        if (StringUtils.isNumeric(runAttempt) && Integer.parseInt(runAttempt) > 1) {
+            resume(publication, annotations);
+        }
+        else {
+            publish(publication, annotations);
+        }
+    }
+
+    /**
+     * Sends the specified publication without looking for an existing check run.
+     *
+     * @param publication
+     *         the publication to send
+     * @param annotations
+     *         passes the annotations of the check run to the specified consumer
+     */
+    void publish(final Publication publication, final Consumer<Consumer<Annotation>> annotations) {
+        createPublisher(publication).publish(
+                r -> r.createCheckRun(publication.title(), publication.sha())
+                        .withStatus(Status.COMPLETED)
+                        .withStartedAt(Date.from(Instant.now()))
+                        .withConclusion(publication.conclusion())
+                        .withExternalID(publication.digest())
+                        .add(new Output(publication.textSummary(), publication.summary())
+                                .withText(publication.details())),
+                run -> attachAnnotations(run, publication, annotations),
+                publication.prNumber(), publication.strategy(), publication.prSummary(), publication.versionLink());
+    }
+
+    private GitHubPublisher createPublisher(final Publication publication) {
+        return new GitHubPublisher(client, publication.repository(), commentLocator, log);
+    }
+
+    private void attachAnnotations(final GHCheckRun run, final Publication publication,
+            final Consumer<Consumer<Annotation>> annotations) {
+        performance.run("annotations", () -> upload(run, publication, annotations));
+    }
+
+    private void upload(final GHCheckRun run, final Publication publication,
+            final Consumer<Consumer<Annotation>> annotations) {
+        try (var uploader = new AnnotationsUploader(run, publication.textSummary(), publication.summary(), log)) {
+            annotations.accept(uploader);
+        }
+    }
+}
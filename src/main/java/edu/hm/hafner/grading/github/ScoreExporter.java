@@ -0,0 +1,265 @@
+package edu.hm.hafner.grading.github;
+
+import org.apache.commons.lang3.StringUtils;
+
+import edu.hm.hafner.analysis.Issue;
+import edu.hm.hafner.coverage.FileNode;
+import edu.hm.hafner.coverage.TestCase;
+import edu.hm.hafner.grading.AggregatedScore;
+import edu.hm.hafner.grading.AnalysisScore;
+import edu.hm.hafner.grading.CoverageScore;
+import edu.hm.hafner.grading.MetricScore;
+import edu.hm.hafner.grading.QualityGateEvaluation;
+import edu.hm.hafner.grading.QualityGateResult;
+import edu.hm.hafner.grading.Score;
+import edu.hm.hafner.grading.TestScore;
+import edu.hm.hafner.util.FilteredLog;
+import edu.hm.hafner.util.LineRange;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Exports an {@link AggregatedScore} and the results of the quality gates so that the results can be processed by
+ * other tools without parsing the Markdown reports. The export contains the total score, the metrics, all scores
+ * with their sub-scores, the findings of the individual tools (failed tests, missed lines, survived mutations, and
+ * issues), and the evaluations of the quality gates. The same structure is written as JSON (environment variable
+ * {@code EXPORT_JSON}) and in the compact binary format of {@link BinaryExportWriter} (environment variable
+ * {@code EXPORT_BINARY}). The structure is versioned by the property {@code version}.
+ *
+ * @author Ullrich Hafner
+ */
+class ScoreExporter {
+    static final int FORMAT_VERSION = 1;
+
+    private static final String NO_NAME = StringUtils.EMPTY;
+
+    private final AggregatedScore score;
+    private final QualityGateResult qualityGateResult;
+
+    /**
+     * Creates a new instance of {@link ScoreExporter}.
+     *
+     * @param score
+     *         the score to export
+     * @param qualityGateResult
+     *         the results of the quality gates
+     */
+    ScoreExporter(final AggregatedScore score, final QualityGateResult qualityGateResult) {
+        this.score = score;
+        this.qualityGateResult = qualityGateResult;
+    }
+
+    /**
+     * Writes the export to the specified files. Blank file names are skipped.
+     *
+     * @param jsonFile
+     *         the name of the JSON file
+     * @param binaryFile
+     *         the name of the binary file
+     * @param log
+     *         the logger
+     */
+    void export(final String jsonFile, final String binaryFile, final FilteredLog log) {
+        if (StringUtils.isNotBlank(jsonFile)) {
+            try (var writer = new JsonExportWriter(createStream(jsonFile))) {
+                write(writer);
+                log.logInfo("Exported score as JSON to '%s'", jsonFile);
+            }
+            catch (IOException exception) {
+                log.logError("Could not export score to '%s': %s", jsonFile, StringUtils.defaultString(exception.getMessage()));
+            }
+        }
+        if (StringUtils.isNotBlank(binaryFile)) {
+            try (var writer = new BinaryExportWriter(createStream(binaryFile))) {
+                write(writer);
+                log.logInfo("Exported score in binary format to '%s'", binaryFile);
+            }
+            catch (IOException exception) {
+                log.logError("Could not export score to '%s': %s", binaryFile, StringUtils.defaultString(exception.getMessage()));
+            }
+        }
+    }
+
+    private BufferedOutputStream createStream(final String file) throws IOException {
+        return new BufferedOutputStream(Files.newOutputStream(Path.of(file)));
+    }
+
+    /**
+     * Writes the export to the specified writer.
+     *
+     * @param writer
+     *         the writer
+     *
+     * @throws IOException
+     *         if the export could not be written
+     */
+    void write(final ExportWriter writer) throws IOException {
+        writer.startObject(NO_NAME);
+        writer.writeNumber("version", FORMAT_VERSION);
+
+        writer.startObject("score");
+        writer.writeNumber("achieved", score.getAchievedScore());
+        writer.writeNumber("max", score.getMaxScore());
+        writer.writeNumber("percentage", score.getAchievedPercentage());
+        writer.endObject();
+
+        writer.startObject("metrics");
+        for (Map.Entry<String, Integer> metric : new TreeMap<>(score.getMetrics()).entrySet()) {
+            writer.writeNumber(metric.getKey(), metric.getValue());
+        }
+        writer.endObject();
+
+        writeScores(writer, "testScores", score.getTestScores(), this::writeTestDetails);
+        writeScores(writer, "coverageScores", score.getCoverageScores(), this::writeCoverageDetails);
+        writeScores(writer, "analysisScores", score.getAnalysisScores(), this::writeAnalysisDetails);
+        writeScores(writer, "metricScores", score.getMetricScores(), this::writeMetricDetails);
+
+        writeQualityGates(writer);
+        writer.endObject();
+    }
+
+    private <S extends Score<S, ?>> void writeScores(final ExportWriter writer, final String name,
+            final List<S> scores, final DetailsWriter<S> details) throws IOException {
+        writer.startArray(name);
+        for (S subScore : scores) {
+            writer.startObject(NO_NAME);
+            writer.writeString("name", subScore.getName());
+            writer.writeString("icon", subScore.getIcon());
+            writer.writeNumber("value", subScore.getValue());
+            writer.writeNumber("maxScore", subScore.getMaxScore());
+            writer.writeNumber("impact", subScore.getImpact());
+            writer.writeNumber("percentage", subScore.getPercentage());
+            details.write(writer, subScore, subScore.getSubScores().isEmpty());
+            writeScores(writer, "subScores", subScore.getSubScores(), details);
+            writer.endObject();
+        }
+        writer.endArray();
+    }
+
+    private void writeTestDetails(final ExportWriter writer, final TestScore testScore, final boolean isLeaf)
+            throws IOException {
+        writer.writeNumber("total", testScore.getTotalSize());
+        writer.writeNumber("passed", testScore.getPassedSize());
+        writer.writeNumber("failed", testScore.getFailedSize());
+        writer.writeNumber("skipped", testScore.getSkippedSize());
+        if (isLeaf) {
+            writer.startArray("failures");
+            for (TestCase failure : testScore.getFailures()) {
+                writer.startObject(NO_NAME);
+                writer.writeString("className", failure.getClassName());
+                writer.writeString("testName", failure.getTestName());
+                writer.writeString("type", failure.getType());
+                writer.writeString("message", failure.getMessage());
+                writer.endObject();
+            }
+            writer.endArray();
+        }
+    }
+
+    private void writeCoverageDetails(final ExportWriter writer, final CoverageScore coverageScore,
+            final boolean isLeaf) throws IOException {
+        writer.writeString("metric", coverageScore.getMetricTagName());
+        writer.writeNumber("coveredPercentage", coverageScore.getCoveredPercentage());
+        writer.writeNumber("missedItems", coverageScore.getMissedItems());
+        if (isLeaf) {
+            writer.startArray("files");
+            for (FileNode file : coverageScore.getReport().getAllFileNodes()) {
+                var survived = file.getSurvivedMutationsPerLine().keySet();
+                if (file.getMissedLineRanges().isEmpty() && survived.isEmpty()) {
+                    continue; // fully covered files are not part of the export
+                }
+                writer.startObject(NO_NAME);
+                writer.writeString("path", file.getRelativePath());
+                writer.startArray("missedLines");
+                for (LineRange range : file.getMissedLineRanges()) {
+                    writeRange(writer, NO_NAME, range.getStart(), range.getEnd());
+                }
+                writer.endArray();
+                writer.startArray("survivedMutations");
+                for (int line : survived) {
+                    writer.writeNumber(NO_NAME, line);
+                }
+                writer.endArray();
+                writer.endObject();
+            }
+            writer.endArray();
+        }
+    }
+
+    private void writeAnalysisDetails(final ExportWriter writer, final AnalysisScore analysisScore,
+            final boolean isLeaf) throws IOException {
+        writer.writeNumber("errors", analysisScore.getErrorSize());
+        writer.writeNumber("high", analysisScore.getHighSeveritySize());
+        writer.writeNumber("normal", analysisScore.getNormalSeveritySize());
+        writer.writeNumber("low", analysisScore.getLowSeveritySize());
+        writer.writeNumber("total", analysisScore.getTotalSize());
+        if (isLeaf) {
+            writer.startArray("issues");
+            for (Issue issue : analysisScore.getReport()) {
+                writer.startObject(NO_NAME);
+                writer.writeString("fileName", issue.getFileName());
+                writeRange(writer, "lines", issue.getLineStart(), issue.getLineEnd());
+                writeRange(writer, "columns", issue.getColumnStart(), issue.getColumnEnd());
+                writer.writeString("severity", issue.getSeverity().getName());
+                writer.writeString("category", issue.getCategory());
+                writer.writeString("type", issue.getType());
+                writer.writeString("message", issue.getMessage());
+                writer.endObject();
+            }
+            writer.endArray();
+        }
+    }
+
+    @SuppressWarnings("unused") // metric scores have no findings
+    private void writeMetricDetails(final ExportWriter writer, final MetricScore metricScore,
+            final boolean isLeaf) throws IOException {
+        writer.writeString("metric", metricScore.getMetricTagName());
+        writer.writeNumber("metricValue", metricScore.getMetricValue());
+        writer.writeString("metricValueText", metricScore.getMetricValueAsString());
+    }
+
+    private void writeQualityGates(final ExportWriter writer) throws IOException {
+        writer.startObject("qualityGates");
+        writer.writeString("status", qualityGateResult.getOverallStatus().name());
+        writer.startArray("evaluations");
+        for (QualityGateEvaluation evaluation : qualityGateResult.getEvaluations()) {
+            writer.startObject(NO_NAME);
+            writer.writeString("name", evaluation.getGateName());
+            writer.writeString("metric", evaluation.getMetric());
+            writer.writeNumber("threshold", evaluation.getThreshold());
+            writer.writeNumber("actualValue", evaluation.getActualValue());
+            writer.writeBoolean("passed", evaluation.isPassed());
+            writer.writeString("criticality", evaluation.getCriticality().name());
+            writer.writeString("message", evaluation.getMessage());
+            writer.endObject();
+        }
+        writer.endArray();
+        writer.endObject();
+    }
+
+    // ranges are written as arrays with two elements to keep the export compact
+    private void writeRange(final ExportWriter writer, final String name, final int start, final int end)
+            throws IOException {
+        writer.startArray(name);
+        writer.writeNumber(NO_NAME, start);
+        writer.writeNumber(NO_NAME, end);
+        writer.endArray();
+    }
+
+    /**
+     * Writes the properties of a score that are specific for the type of the score.
+     *
+     * @param <S>
+     *         the type of the score
+     */
+    @FunctionalInterface
+    private interface DetailsWriter<S> {
+        void write(ExportWriter writer, S score, boolean isLeaf) throws IOException;
+    }
+}
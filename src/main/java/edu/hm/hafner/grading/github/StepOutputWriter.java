@@ -0,0 +1,101 @@
+package edu.hm.hafner.grading.github;
+
+import org.apache.commons.lang3.StringUtils;
+
+import edu.hm.hafner.grading.AggregatedScore;
+import edu.hm.hafner.util.FilteredLog;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Writes results to the files of the current workflow step: the Markdown summary of the step is appended to the file
+ * {@code GITHUB_STEP_SUMMARY}, and the outputs of the step are appended to the file {@code GITHUB_OUTPUT}. Both files
+ * are provided by the GitHub runner, so writing them does not require any GitHub API calls.
+ *
+ * @author Ullrich Hafner
+ */
+class StepOutputWriter {
+    private final String summaryFile;
+    private final String outputFile;
+    private final FilteredLog log;
+
+    /**
+     * Creates a new instance of {@link StepOutputWriter}.
+     *
+     * @param summaryFile
+     *         the file that contains the Markdown summary of the step, an empty string disables the summary
+     * @param outputFile
+     *         the file that contains the outputs of the step, an empty string disables the outputs
+     * @param log
+     *         the logger
+     */
+    StepOutputWriter(final String summaryFile, final String outputFile, final FilteredLog log) {
+        this.summaryFile = summaryFile;
+        this.outputFile = outputFile;
+        this.log = log;
+    }
+
+    /**
+     * Appends the specified Markdown to the summary of the step.
+     *
+     * @param markdown
+     *         the Markdown to append
+     */
+    void appendSummary(final String markdown) {
+        append(summaryFile, "GITHUB_STEP_SUMMARY", markdown + "\n");
+    }
+
+    /**
+     * Appends the specified values to the outputs of the step. Each entry is written as {@code name=value}.
+     *
+     * @param values
+     *         the outputs to append
+     */
+    void appendOutputs(final Map<String, ?> values) {
+        var outputs = new StringBuilder(values.size() * 16);
+        values.forEach((name, value) -> outputs.append(name).append('=').append(value).append('\n'));
+        append(outputFile, "GITHUB_OUTPUT", outputs.toString());
+    }
+
+    /**
+     * Appends the metrics and the score to the outputs of the step. The names of the metrics are the same as in the
+     * autograding configuration, the score is written as {@code score} and {@code max-score}, and the conclusion of
+     * the check as {@code conclusion}.
+     *
+     * @param score
+     *         the aggregated score
+     * @param conclusion
+     *         the conclusion of the check, e.g. {@code SUCCESS}
+     */
+    void appendOutputs(final AggregatedScore score, final String conclusion) {
+        var outputs = new LinkedHashMap<String, Object>(new TreeMap<>(score.getMetrics()));
+        outputs.put("score", score.getAchievedScore());
+        outputs.put("max-score", score.getMaxScore());
+        outputs.put("conclusion", StringUtils.lowerCase(conclusion, Locale.ENGLISH));
+        appendOutputs(outputs);
+    }
+
+    private void append(final String file, final String name, final String content) {
+        if (StringUtils.isBlank(file)) {
+            log.logInfo("No %s defined - skipping", name);
+
+            return;
+        }
+        try (var writer = Files.newBufferedWriter(Path.of(file), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            writer.write(content);
+        }
+        catch (IOException exception) {
+            log.logError("Could not write to %s '%s': %s", name, file,
+                    StringUtils.defaultString(exception.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package edu.hm.hafner.grading.github;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import org.kohsuke.github.connector.GitHubConnector;
+import org.kohsuke.github.connector.GitHubConnectorRequest;
+import org.kohsuke.github.connector.GitHubConnectorResponse;
+
+/**
+ * A {@link GitHubConnector} that records the number and the duration of the requests that are sent to the GitHub API.
+ * Requests are grouped by method and path, numeric path segments (e.g., the ID of a check run or the number of a pull
+ * request) are replaced with a placeholder. The duration is measured until the headers of the response have been
+ * received. The requests are recorded in all recorders that are registered at the time of the request, so that each
+ * run of the action can record the requests of a shared connector in its own recorder.
+ *
+ * @author Ullrich Hafner
+ */
+class TimingConnector implements GitHubConnector {
+    private static final Pattern NUMERIC_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
+
+    private final GitHubConnector delegate;
+    private final Set<PerformanceRecorder> recorders = ConcurrentHashMap.newKeySet();
+
+    TimingConnector(final GitHubConnector delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Starts recording the requests in the specified recorder.
+     *
+     * @param recorder
+     *         the recorder
+     */
+    void register(final PerformanceRecorder recorder) {
+        recorders.add(recorder);
+    }
+
+    /**
+     * Stops recording the requests in the specified recorder.
+     *
+     * @param recorder
+     *         the recorder
+     */
+    void unregister(final PerformanceRecorder recorder) {
+        recorders.remove(recorder);
+    }
+
+    @Override
+    public GitHubConnectorResponse send(final GitHubConnectorRequest request) throws IOException {
+        var start = System.nanoTime();
+        try {
+            return delegate.send(request);
+        }
+        finally {
+            var nanos = System.nanoTime() - start;
+            var phase = getPhase(request);
+            for (PerformanceRecorder recorder : recorders) {
+                recorder.record(phase, nanos);
+            }
+        }
+    }
+
+    private String getPhase(final GitHubConnectorRequest request) {
+        return "GitHub API: %s %s".formatted(request.method(),
+                NUMERIC_SEGMENT.matcher(request.url().getPath()).replaceAll("/{id}"));
+    }
+}
@@ -0,0 +1,44 @@
+package edu.hm.hafner.grading.github;
+
+import edu.hm.hafner.analysis.Report;
+import edu.hm.hafner.coverage.Node;
+import edu.hm.hafner.grading.ToolConfiguration;
+import edu.hm.hafner.grading.ToolParser;
+import edu.hm.hafner.util.FilteredLog;
+
+/**
+ * A {@link ToolParser} that records the time another parser requires to find and parse the report files of each tool.
+ *
+ * @author Ullrich Hafner
+ */
+class TimingToolParser implements ToolParser {
+    private final ToolParser parser;
+    private final PerformanceRecorder performance;
+
+    /**
+     * Creates a new instance of {@link TimingToolParser}.
+     *
+     * @param parser
+     *         the parser to measure
+     * @param performance
+     *         the recorder for the measurements
+     */
+    TimingToolParser(final ToolParser parser, final PerformanceRecorder performance) {
+        this.parser = parser;
+        this.performance = performance;
+    }
+
+    @Override
+    public Report readReport(final ToolConfiguration tool, final FilteredLog log) {
+        return performance.measure(getPhase(tool), () -> parser.readReport(tool, log));
+    }
+
+    @Override
+    public Node readNode(final ToolConfiguration tool, final FilteredLog log) {
+        return performance.measure(getPhase(tool), () -> parser.readNode(tool, log));
+    }
+
+    private String getPhase(final ToolConfiguration tool) {
+        return "parsing: " + tool.getDisplayName();
+    }
+}
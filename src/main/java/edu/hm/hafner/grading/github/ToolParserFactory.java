@@ -0,0 +1,105 @@
+package edu.hm.hafner.grading.github;
+
+import edu.hm.hafner.grading.ToolParser;
+import edu.hm.hafner.util.FilteredLog;
+
+import java.nio.file.Path;
+
+/**
+ * Creates the parser that reads the reports of all configured tools according to the options of the action. In
+ * low memory mode, only the data that is required for the score and the annotations is kept from the coverage tree
+ * of each report file (see {@link CoverageTrimmer}), and the reports are read sequentially. If a cache directory is set, then the
+ * results of unchanged reports are read from this directory (see {@link CachingToolParser}). If the parallelism is
+ * greater than one, then the reports of the different tools are read in parallel (see {@link ParallelToolParser}),
+ * and the report files of each tool are parsed in parallel as well (see {@link ReportDirectoryToolParser}).
+ *
+ * @author Ullrich Hafner
+ */
+class ToolParserFactory {
+    private static final int SEQUENTIAL = 1;
+    private static final String ALL_PROCESSORS = "auto";
+    private static final String DEFAULT_MODE = "default";
+    private static final String LOW_MEMORY_MODE = "low-memory";
+
+    private final Path reportDirectory;
+    private final boolean lowMemory;
+    private final String cacheDirectory;
+    private final String parallelism;
+    private final String version;
+
+    /**
+     * Creates a new instance of {@link ToolParserFactory}.
+     *
+     * @param reportDirectory
+     *         the directory that contains the report files (see {@link ReportDirectoryToolParser})
+     * @param lowMemory
+     *         determines whether the low memory mode is enabled
+     * @param cacheDirectory
+     *         the directory of the report cache, an empty string disables the cache
+     * @param parallelism
+     *         the number of tools (and report files of a tool) that will be read in parallel, {@code auto} uses all
+     *         processors, an empty string reads the reports sequentially
+     * @param version
+     *         the version of the action, cache entries of other versions are not used
+     */
+    ToolParserFactory(final Path reportDirectory, final boolean lowMemory, final String cacheDirectory,
+            final String parallelism, final String version) {
+        this.reportDirectory = reportDirectory;
+        this.lowMemory = lowMemory;
+        this.cacheDirectory = cacheDirectory;
+        this.parallelism = parallelism;
+        this.version = version;
+    }
+
+    /**
+     * Creates the parser.
+     *
+     * @param configuration
+     *         the autograding configuration
+     * @param performance
+     *         the recorder for the duration of parsing the reports of each tool
+     * @param log
+     *         the logger
+     *
+     * @return the parser
+     */
+    ToolParser create(final String configuration, final PerformanceRecorder performance, final FilteredLog log) {
+        var threads = getParallelism(log);
+        if (threads > SEQUENTIAL && lowMemory) {
+            log.logInfo("Ignoring PARALLELISM in low memory mode, reading the reports sequentially");
+            threads = SEQUENTIAL;
+        }
+
+        ToolParser decorated = new TimingToolParser(
+                new ReportDirectoryToolParser(reportDirectory, threads, lowMemory), performance);
+
+        if (!cacheDirectory.isBlank()) {
+            var cachingParser = new CachingToolParser(decorated, reportDirectory,
+                    lowMemory ? LOW_MEMORY_MODE : DEFAULT_MODE, Path.of(cacheDirectory), version);
+            cachingParser.removeStaleEntries(log);
+            decorated = cachingParser;
+        }
+
+        if (threads > SEQUENTIAL) {
+            return new ParallelToolParser(decorated, threads, configuration);
+        }
+        return decorated;
+    }
+
+    private int getParallelism(final FilteredLog log) {
+        if (parallelism.isBlank()) {
+            return SEQUENTIAL;
+        }
+        if (ALL_PROCESSORS.equals(parallelism)) {
+            return Runtime.getRuntime().availableProcessors();
+        }
+        try {
+            return Integer.parseInt(parallelism);
+        }
+        catch (NumberFormatException exception) {
+            log.logError("Ignoring invalid value of PARALLELISM: '%s'", parallelism);
+
+            return SEQUENTIAL;
+        }
+    }
+}
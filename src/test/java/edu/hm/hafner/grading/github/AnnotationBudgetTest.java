@@ -0,0 +1,77 @@
+package edu.hm.hafner.grading.github;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.kohsuke.github.GHCheckRun.AnnotationLevel;
+import org.kohsuke.github.GHCheckRunBuilder.Annotation;
+
+import static org.assertj.core.api.Assertions.*;
+
+class AnnotationBudgetTest {
+    @Test
+    void shouldPassAllAnnotationsImmediatelyIfUnlimited() {
+        List<Annotation> annotations = new ArrayList<>();
+        var budget = new AnnotationBudget(Integer.MAX_VALUE, annotations::add);
+
+        budget.offer(1, createAnnotation(1));
+        budget.offer(2, createAnnotation(2));
+
+        assertThat(annotations).extracting("start_line").containsExactly(1, 2);
+        assertThat(budget.accepts(0)).isTrue();
+        assertThat(budget.getDiscarded()).isZero();
+    }
+
+    @Test
+    void shouldSelectAnnotationsWithHighestPriority() {
+        List<Annotation> annotations = new ArrayList<>();
+        var budget = new AnnotationBudget(3, annotations::add);
+
+        long[] priorities = {1, 5, 3, 5, 2, 4, 5};
+        for (int line = 0; line < priorities.length; line++) {
+            if (budget.accepts(priorities[line])) {
+                budget.offer(priorities[line], createAnnotation(line));
+            }
+            else {
+                budget.discard();
+            }
+        }
+        assertThat(annotations).isEmpty();
+
+        budget.flush();
+
+        assertThat(annotations).extracting("start_line").containsExactly(1, 3, 6);
+        assertThat(budget.getDiscarded()).isEqualTo(4);
+    }
+
+    @Test
+    void shouldPreferEarlierAnnotationsWithSamePriority() {
+        List<Annotation> annotations = new ArrayList<>();
+        var budget = new AnnotationBudget(2, annotations::add);
+
+        for (int line = 1; line <= 5; line++) {
+            budget.offer(1, createAnnotation(line));
+        }
+        budget.flush();
+
+        assertThat(annotations).extracting("start_line").containsExactly(1, 2);
+    }
+
+    @Test
+    void shouldDiscardEverythingWithoutBudget() {
+        List<Annotation> annotations = new ArrayList<>();
+        var budget = new AnnotationBudget(0, annotations::add);
+
+        assertThat(budget.accepts(Long.MAX_VALUE)).isFalse();
+        budget.offer(Long.MAX_VALUE, createAnnotation(1));
+        budget.flush();
+
+        assertThat(annotations).isEmpty();
+    }
+
+    private Annotation createAnnotation(final int line) {
+        return new Annotation("File.java", line, AnnotationLevel.WARNING, "Message");
+    }
+}
@@ -0,0 +1,140 @@
+package edu.hm.hafner.grading.github;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.hm.hafner.util.FilteredLog;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.kohsuke.github.GHCheckRun;
+import org.kohsuke.github.GHCheckRun.AnnotationLevel;
+import org.kohsuke.github.GHCheckRunBuilder;
+import org.kohsuke.github.GHCheckRunBuilder.Annotation;
+import org.kohsuke.github.GHCheckRunBuilder.Output;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AnnotationsUploaderTest {
+    @Test
+    void shouldNotSendRequestsWithoutAnnotations() {
+        var checkRun = mock(GHCheckRun.class);
+
+        try (var uploader = new AnnotationsUploader(checkRun, "Title", "Summary", new FilteredLog("unused"))) {
+            assertThat(uploader.getRequests()).isZero();
+        }
+
+        verify(checkRun, never()).update();
+    }
+
+    @Test
+    void shouldUploadAnnotationsInBatches() throws IOException {
+        var checkRun = mock(GHCheckRun.class);
+        var builder = createBuilder(checkRun);
+
+        var uploader = new AnnotationsUploader(checkRun, "Title", "Summary", new FilteredLog("unused"));
+        try (uploader) {
+            createAnnotations(120).forEach(uploader);
+        }
+
+        var outputs = ArgumentCaptor.forClass(Output.class);
+        verify(builder, times(3)).add(outputs.capture());
+        verify(builder, times(3)).create();
+        assertThat(uploader.getRequests()).isEqualTo(3);
+        assertThat(uploader.getUploadedAnnotations()).isEqualTo(120);
+        assertThat(uploader.getFailedAnnotations()).isZero();
+        assertThat(outputs.getAllValues()).map(this::toJson).allSatisfy(output -> {
+            assertThat(output.get("title").asText()).isEqualTo("Title");
+            assertThat(output.get("summary").asText()).isEqualTo("Summary");
+            assertThat(output.has("text")).as("text has been sent with the check run").isFalse();
+        }).map(output -> output.get("annotations").size()).containsExactly(50, 50, 20);
+    }
+
+    @Test
+    void shouldContinueAfterRejectedBatch() throws IOException {
+        var checkRun = mock(GHCheckRun.class);
+        var builder = createBuilder(checkRun);
+        when(builder.create()).thenThrow(new IOException("Rejected")).thenReturn(checkRun);
+
+        var log = new FilteredLog("unused");
+        var uploader = new AnnotationsUploader(checkRun, "Title", "Summary", log);
+        try (uploader) {
+            createAnnotations(70).forEach(uploader);
+        }
+
+        assertThat(uploader.getRequests()).isEqualTo(2);
+        assertThat(uploader.getUploadedAnnotations()).isEqualTo(20);
+        assertThat(uploader.getFailedAnnotations()).isEqualTo(50);
+        assertThat(log.getErrorMessages()).contains("Could not upload 50 annotations (batch 1): Rejected");
+
+        var outputs = ArgumentCaptor.forClass(Output.class);
+        verify(builder, times(3)).add(outputs.capture());
+        var incomplete = toJson(outputs.getValue());
+        assertThat(incomplete.has("annotations")).isFalse();
+        assertThat(incomplete.get("summary").asText()).startsWith("Summary")
+                .contains("50 of 70 annotations could not be uploaded");
+    }
+
+    @Test
+    void shouldLogErrorIfCheckRunCannotBeMarkedAsIncomplete() throws IOException {
+        var checkRun = mock(GHCheckRun.class);
+        var builder = createBuilder(checkRun);
+        when(builder.create()).thenThrow(new IOException("Rejected"));
+
+        var log = new FilteredLog("unused");
+        try (var uploader = new AnnotationsUploader(checkRun, "Title", "Summary", log)) {
+            createAnnotations(10).forEach(uploader);
+        }
+
+        assertThat(log.getErrorMessages()).contains("Could not upload 10 annotations (batch 1): Rejected",
+                "Could not mark the check run as incomplete: Rejected");
+    }
+
+    @Test
+    void shouldUploadCompleteBatchesWhileStreaming() throws IOException {
+        var checkRun = mock(GHCheckRun.class);
+        var builder = createBuilder(checkRun);
+
+        var uploader = new AnnotationsUploader(checkRun, "Title", "Summary", new FilteredLog("unused"));
+        try (uploader) {
+            createAnnotations(AnnotationsUploader.MAX_ANNOTATIONS_PER_REQUEST + 1).forEach(uploader);
+
+            verify(builder).create();
+            assertThat(uploader.getUploadedAnnotations()).isEqualTo(AnnotationsUploader.MAX_ANNOTATIONS_PER_REQUEST);
+        }
+
+        verify(builder, times(2)).create();
+        assertThat(uploader.getUploadedAnnotations()).isEqualTo(AnnotationsUploader.MAX_ANNOTATIONS_PER_REQUEST + 1);
+    }
+
+    private GHCheckRunBuilder createBuilder(final GHCheckRun checkRun) {
+        var builder = mock(GHCheckRunBuilder.class);
+        when(checkRun.update()).thenReturn(builder);
+        when(builder.add(any(Output.class))).thenReturn(builder);
+        return builder;
+    }
+
+    // the fields of the output are serialized in the same way as in the request to GitHub
+    private JsonNode toJson(final Output output) {
+        return new ObjectMapper().setVisibility(PropertyAccessor.FIELD, Visibility.ANY)
+                .setSerializationInclusion(Include.NON_NULL)
+                .valueToTree(output);
+    }
+
+    private List<Annotation> createAnnotations(final int size) {
+        List<Annotation> annotations = new ArrayList<>();
+        for (int line = 1; line <= size; line++) {
+            annotations.add(new Annotation("File.java", line, AnnotationLevel.WARNING, "Message"));
+        }
+        return annotations;
+    }
+}
@@ -0,0 +1,139 @@
+package edu.hm.hafner.grading.github;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import edu.hm.hafner.grading.FileSystemToolParser;
+import edu.hm.hafner.grading.ToolConfiguration;
+import edu.hm.hafner.grading.ToolParser;
+import edu.hm.hafner.util.FilteredLog;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CachingToolParserTest {
+    private static final ToolConfiguration CHECKSTYLE = new ToolConfiguration("checkstyle", "CheckStyle",
+            "**/src/test/resources/checkstyle/checkstyle*.xml", "", "");
+    private static final ToolConfiguration JACOCO = new ToolConfiguration("jacoco", "Line Coverage",
+            "**/src/test/resources/jacoco/jacoco.xml", "line", "");
+    private static final String VERSION = "1.0.0";
+    private static final String MODE = "default";
+    private static final Path REPORTS = Path.of(".");
+
+    @Test
+    void shouldReadUnchangedReportsFromCache(@TempDir final Path cache) {
+        var log = new FilteredLog("Errors");
+        var parser = createParser();
+
+        var report = new CachingToolParser(parser, REPORTS, MODE, cache, VERSION).readReport(CHECKSTYLE, log);
+        var node = new CachingToolParser(parser, REPORTS, MODE, cache, VERSION).readNode(JACOCO, log);
+
+        assertThat(report).hasSize(19);
+        assertThat(cache).isDirectoryContaining("glob:**.ser.gz");
+
+        var cachingParser = new CachingToolParser(parser, REPORTS, MODE, cache, VERSION);
+        assertThat(cachingParser.readReport(CHECKSTYLE, log)).isEqualTo(report);
+        assertThat(cachingParser.readNode(JACOCO, log)).isEqualTo(node);
+
+        verify(parser).readReport(CHECKSTYLE, log);
+        verify(parser).readNode(JACOCO, log);
+        assertThat(log.getInfoMessages()).contains(
+                "Reusing cached results for CheckStyle (report files are unchanged)",
+                "Reusing cached results for Line Coverage (report files are unchanged)");
+        assertThat(log.hasErrors()).isFalse();
+    }
+
+    @Test
+    void shouldNotReuseResultsOfOtherVersions(@TempDir final Path cache) {
+        var log = new FilteredLog("Errors");
+        var parser = createParser();
+
+        new CachingToolParser(parser, REPORTS, MODE, cache, VERSION).readReport(CHECKSTYLE, log);
+        new CachingToolParser(parser, REPORTS, MODE, cache, "2.0.0").readReport(CHECKSTYLE, log);
+
+        verify(parser, times(2)).readReport(CHECKSTYLE, log);
+    }
+
+    @Test
+    void shouldNotReuseResultsOfOtherModes(@TempDir final Path cache) {
+        var log = new FilteredLog("Errors");
+        var parser = createParser();
+
+        new CachingToolParser(parser, REPORTS, MODE, cache, VERSION).readNode(JACOCO, log);
+        new CachingToolParser(parser, REPORTS, "low-memory", cache, VERSION).readNode(JACOCO, log);
+
+        verify(parser, times(2)).readNode(JACOCO, log);
+    }
+
+    @Test
+    void shouldRejectEntriesWithOtherClasses(@TempDir final Path cache) throws IOException {
+        var log = new FilteredLog("Errors");
+        var parser = createParser();
+
+        new CachingToolParser(parser, REPORTS, MODE, cache, VERSION).readReport(CHECKSTYLE, log);
+        try (var entries = Files.list(cache)) {
+            for (Path entry : entries.toList()) {
+                try (var output = new ObjectOutputStream(new GZIPOutputStream(Files.newOutputStream(entry)))) {
+                    output.writeObject(new AtomicInteger(42));
+                }
+            }
+        }
+
+        assertThat(new CachingToolParser(parser, REPORTS, MODE, cache, VERSION).readReport(CHECKSTYLE, log)).hasSize(19);
+        verify(parser, times(2)).readReport(CHECKSTYLE, log);
+        assertThat(log.getInfoMessages()).anySatisfy(
+                message -> assertThat(message).startsWith("Ignoring invalid report cache entry")
+                        .endsWith("filter status: REJECTED"));
+    }
+
+    @Test
+    void shouldIgnoreInvalidEntries(@TempDir final Path cache) throws IOException {
+        var log = new FilteredLog("Errors");
+        var parser = createParser();
+
+        new CachingToolParser(parser, REPORTS, MODE, cache, VERSION).readReport(CHECKSTYLE, log);
+        try (var entries = Files.list(cache)) {
+            for (Path entry : entries.toList()) {
+                Files.writeString(entry, "corrupted");
+            }
+        }
+
+        assertThat(new CachingToolParser(parser, REPORTS, MODE, cache, VERSION).readReport(CHECKSTYLE, log)).hasSize(19);
+        verify(parser, times(2)).readReport(CHECKSTYLE, log);
+        assertThat(log.getInfoMessages()).anySatisfy(
+                message -> assertThat(message).startsWith("Ignoring invalid report cache entry"));
+        assertThat(log.hasErrors()).isFalse();
+    }
+
+    @Test
+    void shouldNotCacheMissingReports(@TempDir final Path cache) {
+        var log = new FilteredLog("Errors");
+        var parser = createParser();
+        var missing = new ToolConfiguration("checkstyle", "CheckStyle", "**/does-not-exist/checkstyle.xml", "", "");
+
+        var cachingParser = new CachingToolParser(parser, REPORTS, MODE, cache, VERSION);
+        cachingParser.readReport(missing, log);
+        cachingParser.readReport(missing, log);
+
+        verify(parser, times(2)).readReport(missing, log);
+        assertThat(cache).isEmptyDirectory();
+    }
+
+    private ToolParser createParser() {
+        var fileSystemParser = new FileSystemToolParser();
+        var parser = mock(ToolParser.class);
+        when(parser.readReport(any(), any())).thenAnswer(
+                invocation -> fileSystemParser.readReport(invocation.getArgument(0), invocation.getArgument(1)));
+        when(parser.readNode(any(), any())).thenAnswer(
+                invocation -> fileSystemParser.readNode(invocation.getArgument(0), invocation.getArgument(1)));
+        return parser;
+    }
+}
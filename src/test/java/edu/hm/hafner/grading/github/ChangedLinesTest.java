@@ -0,0 +1,86 @@
+package edu.hm.hafner.grading.github;
+
+import org.junit.jupiter.api.Test;
+
+import edu.hm.hafner.util.FilteredLog;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.kohsuke.github.GHPullRequest;
+import org.kohsuke.github.GHPullRequestFileDetail;
+import org.kohsuke.github.PagedIterable;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ChangedLinesTest {
+    private static final String PATCH = """
+            @@ -10,6 +10,8 @@ class Main {
+                 void run() {
+            -        old();
+            +        first();
+            +        second();
+            +        third();
+                 }
+            \s
+            @@ -40,3 +42,4 @@ class Main {
+                 }
+            +    // comment
+             }
+            \\ No newline at end of file""";
+
+    @Test
+    void shouldIndexAddedLinesOfPatch() {
+        var changedLines = ChangedLines.all();
+        assertThat(changedLines.contains("Other.java", 1, 1)).isTrue();
+
+        var lines = createChangedLines("Main.java", PATCH);
+
+        assertThat(lines.getLineCount()).isEqualTo(4);
+        assertThat(lines.contains("Main.java", 10, 10)).isFalse();
+        assertThat(lines.contains("Main.java", 11, 11)).isTrue();
+        assertThat(lines.contains("Main.java", 13, 13)).isTrue();
+        assertThat(lines.contains("Main.java", 14, 14)).isFalse();
+        assertThat(lines.contains("Main.java", 1, 11)).isTrue();
+        assertThat(lines.contains("Main.java", 14, 42)).isFalse();
+        assertThat(lines.contains("Main.java", 43, 43)).isTrue();
+        assertThat(lines.contains("Main.java", 0, 0)).isTrue();
+        assertThat(lines.contains("Other.java", 11, 11)).isFalse();
+    }
+
+    @Test
+    void shouldTreatFilesWithoutPatchAsChanged() {
+        var lines = createChangedLines("Large.java", "");
+
+        assertThat(lines.contains("Large.java", 1000, 1000)).isTrue();
+        assertThat(lines.getFileCount()).isOne();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldReadPatchesOfPullRequest() throws IOException {
+        var file = mock(GHPullRequestFileDetail.class);
+        when(file.getFilename()).thenReturn("src/Main.java");
+        when(file.getPatch()).thenReturn(PATCH);
+
+        PagedIterable<GHPullRequestFileDetail> iterable = mock(PagedIterable.class);
+        when(iterable.toList()).thenReturn(List.of(file));
+        when(iterable.withPageSize(anyInt())).thenReturn(iterable);
+        var pullRequest = mock(GHPullRequest.class);
+        when(pullRequest.listFiles()).thenReturn(iterable);
+
+        var log = new FilteredLog("Errors");
+        var lines = ChangedLines.fromPullRequest(pullRequest, log);
+
+        assertThat(lines.contains("src/Main.java", 12, 12)).isTrue();
+        assertThat(log.getInfoMessages()).contains("Found 4 changed lines in 1 files of the pull request");
+    }
+
+    private ChangedLines createChangedLines(final String path, final String patch) {
+        var lines = new ChangedLines();
+        lines.addPatch(path, patch);
+        return lines;
+    }
+}
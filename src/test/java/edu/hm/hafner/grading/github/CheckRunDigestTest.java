@@ -0,0 +1,68 @@
+package edu.hm.hafner.grading.github;
+
+import org.junit.jupiter.api.Test;
+
+import edu.hm.hafner.util.FilteredLog;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import org.kohsuke.github.GHCheckRun;
+import org.kohsuke.github.GHRepository;
+import org.kohsuke.github.PagedIterable;
+import org.kohsuke.github.PagedIterator;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CheckRunDigestTest {
+    @Test
+    void shouldSeparateValues() {
+        assertThat(CheckRunDigest.create("ab", "c").value()).hasSize(64);
+        assertThat(CheckRunDigest.create("ab", "c"))
+                .isEqualTo(CheckRunDigest.create("ab", "c"))
+                .isNotEqualTo(CheckRunDigest.create("a", "bc"));
+    }
+
+    @Test
+    void shouldFindPublishedCheckRun() throws IOException {
+        var digest = CheckRunDigest.create("Title", "Summary");
+        var other = mock(GHCheckRun.class);
+        when(other.getExternalId()).thenReturn("other");
+        var published = mock(GHCheckRun.class);
+        when(published.getExternalId()).thenReturn(digest.value());
+        var repository = mock(GHRepository.class);
+        var checkRuns = mockCheckRuns(other, published);
+        when(repository.getCheckRuns("sha", Map.of("check_name", "Title"))).thenReturn(checkRuns);
+
+        var log = new FilteredLog("unused");
+
+        assertThat(digest.find(repository, "sha", "Title", log)).contains(published);
+        assertThat(log.getInfoMessages()).anySatisfy(m -> assertThat(m).startsWith("Skipping check"));
+        assertThat(CheckRunDigest.create("Title", "Changed").find(repository, "sha", "Title", log)).isEmpty();
+    }
+
+    @Test
+    void shouldPublishIfCheckRunsAreNotAvailable() throws IOException {
+        var repository = mock(GHRepository.class);
+        when(repository.getCheckRuns(anyString(), anyMap())).thenThrow(new IOException("Forbidden"));
+
+        var log = new FilteredLog("unused");
+
+        assertThat(CheckRunDigest.create("Title").find(repository, "sha", "Title", log)).isEmpty();
+        assertThat(log.getErrorMessages()).isEmpty();
+    }
+
+    @SuppressWarnings("unchecked")
+    private PagedIterable<GHCheckRun> mockCheckRuns(final GHCheckRun... checkRuns) {
+        PagedIterable<GHCheckRun> iterable = mock(PagedIterable.class);
+        PagedIterator<GHCheckRun> iterator = mock(PagedIterator.class);
+        var elements = List.of(checkRuns).iterator();
+        when(iterator.hasNext()).thenAnswer(i -> elements.hasNext());
+        when(iterator.next()).thenAnswer(i -> elements.next());
+        when(iterable.iterator()).thenReturn(iterator);
+        return iterable;
+    }
+}
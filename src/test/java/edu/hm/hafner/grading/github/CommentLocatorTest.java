@@ -0,0 +1,150 @@
+package edu.hm.hafner.grading.github;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import edu.hm.hafner.util.FilteredLog;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.kohsuke.github.GHIssueComment;
+import org.kohsuke.github.GHIssueCommentQueryBuilder;
+import org.kohsuke.github.GHPullRequest;
+import org.kohsuke.github.PagedIterable;
+import org.kohsuke.github.PagedIterator;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CommentLocatorTest {
+    private static final String MARKER = "<!-- marker -->";
+    private static final String AUTHOR = "autograding";
+
+    @Test
+    void shouldScanAllCommentsWithoutStateFile() throws IOException {
+        var comment = createComment(3, MARKER);
+        var pullRequest = mock(GHPullRequest.class);
+        var comments = createIterable(createComment(1, "other"), createComment(2, "> " + MARKER), comment);
+        when(pullRequest.listComments()).thenReturn(comments);
+
+        var locator = new CommentLocator(MARKER, "", () -> AUTHOR, new FilteredLog("Errors"));
+
+        assertThat(locator.find(pullRequest)).contains(comment);
+        verify(comments, atLeastOnce()).withPageSize(100);
+    }
+
+    @Test
+    void shouldSelectNewestCommentOfTheTokenUser() throws IOException {
+        var newest = createComment(3, MARKER);
+        var pullRequest = mock(GHPullRequest.class);
+        var comments = createIterable(createComment(1, MARKER), newest, createComment(4, MARKER, "other-user"));
+        when(pullRequest.listComments()).thenReturn(comments);
+
+        var locator = new CommentLocator(MARKER, "", () -> AUTHOR, new FilteredLog("Errors"));
+
+        assertThat(locator.find(pullRequest)).contains(newest);
+    }
+
+    @Test
+    void shouldAcceptOnlyBotCommentsForAppTokens() throws IOException {
+        var comment = createComment(1, MARKER, "github-actions[bot]");
+        var pullRequest = mock(GHPullRequest.class);
+        var comments = createIterable(comment, createComment(2, MARKER));
+        when(pullRequest.listComments()).thenReturn(comments);
+
+        var locator = new CommentLocator(MARKER, "", () -> "", new FilteredLog("Errors"));
+
+        assertThat(locator.find(pullRequest)).contains(comment);
+    }
+
+    @Test
+    void shouldSearchRecentCommentsFirst() throws IOException {
+        var pullRequest = mock(GHPullRequest.class);
+        when(pullRequest.getCommentsCount()).thenReturn(500);
+        var query = mock(GHIssueCommentQueryBuilder.class);
+        when(pullRequest.queryComments()).thenReturn(query);
+        when(query.since(anyLong())).thenReturn(query);
+        var comment = createComment(480, MARKER);
+        var lastDay = createIterable(createComment(499, "newer"));
+        var lastWeek = createIterable(comment, createComment(499, "newer"));
+        when(query.list()).thenReturn(lastDay, lastWeek);
+
+        var locator = new CommentLocator(MARKER, "", () -> AUTHOR, new FilteredLog("Errors"));
+
+        assertThat(locator.find(pullRequest)).contains(comment);
+        verify(query, times(2)).list();
+        verify(pullRequest, never()).listComments();
+    }
+
+    @Test
+    void shouldQueryOnlyNewerCommentsIfStateIsAvailable(@TempDir final Path workspace) throws IOException {
+        var stateFile = workspace.resolve("state/comment.properties").toString();
+        var log = new FilteredLog("Errors");
+        var comment = createComment(42, MARKER);
+
+        new CommentLocator(MARKER, stateFile, () -> AUTHOR, log).remember(comment);
+
+        var locator = new CommentLocator(MARKER, stateFile, () -> AUTHOR, log);
+
+        var pullRequest = mock(GHPullRequest.class);
+        var query = mock(GHIssueCommentQueryBuilder.class);
+        when(pullRequest.queryComments()).thenReturn(query);
+        when(query.since(longThat(since -> since < System.currentTimeMillis()))).thenReturn(query);
+        var newerComments = createIterable(comment, createComment(43, "newer"));
+        when(query.list()).thenReturn(newerComments);
+
+        assertThat(locator.find(pullRequest)).contains(comment);
+        verify(pullRequest, never()).listComments();
+        assertThat(log.hasErrors()).isFalse();
+    }
+
+    @Test
+    void shouldFallbackToScanIfPreviousCommentHasBeenDeleted(@TempDir final Path workspace) throws IOException {
+        var stateFile = workspace.resolve("comment.properties").toString();
+        var log = new FilteredLog("Errors");
+        new CommentLocator(MARKER, stateFile, () -> AUTHOR, log).remember(createComment(42, MARKER));
+
+        var pullRequest = mock(GHPullRequest.class);
+        var query = mock(GHIssueCommentQueryBuilder.class);
+        when(pullRequest.queryComments()).thenReturn(query);
+        when(query.since(anyLong())).thenReturn(query);
+        var emptyIterable = createIterable();
+        when(query.list()).thenReturn(emptyIterable);
+        var comment = createComment(50, MARKER);
+        var comments = createIterable(comment);
+        when(pullRequest.listComments()).thenReturn(comments);
+
+        assertThat(new CommentLocator(MARKER, stateFile, () -> AUTHOR, log).find(pullRequest)).contains(comment);
+        assertThat(log.getInfoMessages()).contains("Previous comment 42 not found, scanning all comments");
+    }
+
+    private GHIssueComment createComment(final long id, final String body) {
+        return createComment(id, body, AUTHOR);
+    }
+
+    @SuppressWarnings("deprecation")
+    private GHIssueComment createComment(final long id, final String body, final String author) {
+        var comment = mock(GHIssueComment.class);
+        when(comment.getId()).thenReturn(id);
+        when(comment.getBody()).thenReturn(body);
+        when(comment.getUserName()).thenReturn(author);
+        return comment;
+    }
+
+    @SuppressWarnings("unchecked")
+    private PagedIterable<GHIssueComment> createIterable(final GHIssueComment... comments) {
+        PagedIterable<GHIssueComment> iterable = mock(PagedIterable.class);
+        when(iterable.withPageSize(anyInt())).thenReturn(iterable);
+        when(iterable.iterator()).thenAnswer(i -> {
+            PagedIterator<GHIssueComment> iterator = mock(PagedIterator.class);
+            var elements = List.of(comments).iterator();
+            when(iterator.hasNext()).thenAnswer(h -> elements.hasNext());
+            when(iterator.next()).thenAnswer(n -> elements.next());
+            return iterator;
+        });
+        return iterable;
+    }
+}
@@ -0,0 +1,111 @@
+package edu.hm.hafner.grading.github;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import org.kohsuke.github.connector.GitHubConnector;
+import org.kohsuke.github.connector.GitHubConnectorRequest;
+import org.kohsuke.github.connector.GitHubConnectorResponse;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ConditionalRequestConnectorTest {
+    private static final String URL = "https://api.github.com/repos/uhafner/autograding-github-action";
+    private static final String BODY = "{\"name\":\"autograding-github-action\"}";
+    private static final String ETAG = "\"etag-1\"";
+
+    @Test
+    void shouldReturnCachedBodyIfNotModified() throws IOException {
+        var delegate = mock(GitHubConnector.class);
+        when(delegate.send(any()))
+                .thenAnswer(i -> createResponse(i.getArgument(0), 200, BODY))
+                .thenAnswer(i -> createResponse(i.getArgument(0), 304, ""));
+
+        var connector = new ConditionalRequestConnector(delegate);
+        var request = createRequest("GET");
+
+        assertThat(read(connector.send(request))).isEqualTo(BODY);
+        assertThat(connector.size()).isOne();
+
+        try (var cached = connector.send(request)) {
+            assertThat(cached.statusCode()).isEqualTo(200);
+            assertThat(cached.header(ConditionalRequestConnector.ETAG)).isEqualTo(ETAG);
+            assertThat(read(cached)).isEqualTo(BODY);
+        }
+
+        verify(delegate).send(argThat(r -> ETAG.equals(r.header(ConditionalRequestConnector.IF_NONE_MATCH))));
+    }
+
+    @Test
+    void shouldRemoveCachedResponseIfResourceIsModified() throws IOException {
+        var delegate = mock(GitHubConnector.class);
+        when(delegate.send(any())).thenAnswer(i -> createResponse(i.getArgument(0), 200, BODY));
+
+        var connector = new ConditionalRequestConnector(delegate);
+        connector.send(createRequest("GET"));
+        assertThat(connector.size()).isOne();
+
+        connector.send(createRequest("PATCH"));
+        assertThat(connector.size()).isZero();
+
+        connector.send(createRequest("GET"));
+        verify(delegate, never()).send(argThat(r -> r.header(ConditionalRequestConnector.IF_NONE_MATCH) != null));
+    }
+
+    @Test
+    void shouldKeepOnlyMostRecentlyUsedResponses() throws IOException {
+        var delegate = mock(GitHubConnector.class);
+        when(delegate.send(any())).thenAnswer(i -> createResponse(i.getArgument(0), 200, BODY));
+
+        var connector = new ConditionalRequestConnector(delegate, 2);
+        connector.send(createRequest("GET", URL + "/1"));
+        connector.send(createRequest("GET", URL + "/2"));
+        connector.send(createRequest("GET", URL + "/1"));
+        connector.send(createRequest("GET", URL + "/3"));
+        assertThat(connector.size()).isEqualTo(2);
+
+        connector.send(createRequest("GET", URL + "/2")); // evicted, since it is the least recently used response
+        verify(delegate, times(2)).send(argThat(r -> r.url().toString().endsWith("/2")
+                && r.header(ConditionalRequestConnector.IF_NONE_MATCH) == null));
+        verify(delegate).send(argThat(r -> r.url().toString().endsWith("/1")
+                && ETAG.equals(r.header(ConditionalRequestConnector.IF_NONE_MATCH))));
+    }
+
+    private String read(final GitHubConnectorResponse response) throws IOException {
+        try (response; var stream = response.bodyStream()) {
+            return new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private GitHubConnectorRequest createRequest(final String method) throws IOException {
+        return createRequest(method, URL);
+    }
+
+    private GitHubConnectorRequest createRequest(final String method, final String url) throws IOException {
+        var request = mock(GitHubConnectorRequest.class);
+        when(request.method()).thenReturn(method);
+        when(request.url()).thenReturn(URI.create(url).toURL());
+        when(request.allHeaders()).thenReturn(Map.of("Authorization", List.of("token secret")));
+        return request;
+    }
+
+    private GitHubConnectorResponse createResponse(final GitHubConnectorRequest request, final int status,
+            final String body) {
+        return new GitHubConnectorResponse.ByteArrayResponse(request, status,
+                Map.of(ConditionalRequestConnector.ETAG, List.of(ETAG))) {
+            @Override
+            protected InputStream rawBodyStream() {
+                return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+            }
+        };
+    }
+}
@@ -0,0 +1,40 @@
+package edu.hm.hafner.grading.github;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import edu.hm.hafner.coverage.FileNode;
+import edu.hm.hafner.coverage.Metric;
+import edu.hm.hafner.coverage.Mutation;
+import edu.hm.hafner.grading.FileSystemToolParser;
+import edu.hm.hafner.grading.ToolConfiguration;
+import edu.hm.hafner.util.FilteredLog;
+
+import static org.assertj.core.api.Assertions.*;
+
+class CoverageTrimmerTest {
+    @ParameterizedTest(name = "{0}")
+    @CsvSource({
+            "jacoco, line, **/src/test/resources/jacoco/jacoco.xml",
+            "jacoco, branch, **/src/test/resources/jacoco/jacoco.xml",
+            "pit, mutation, **/src/test/resources/pit/mutations.xml"})
+    void shouldKeepValuesAndAnnotatedLines(final String id, final String metric, final String pattern) {
+        var tool = new ToolConfiguration(id, id, pattern, metric, "");
+
+        var original = new FileSystemToolParser().readNode(tool, new FilteredLog("Errors"));
+        var trimmed = CoverageTrimmer.trim(original);
+
+        assertThat(trimmed.aggregateValues()).isEqualTo(original.aggregateValues()).isNotEmpty();
+        assertThat(trimmed.getAll(Metric.METHOD))
+                .hasSameSizeAs(original.getAll(Metric.METHOD));
+        assertThat(trimmed.getAllFileNodes()).hasSameSizeAs(original.getAllFileNodes()).isNotEmpty();
+        for (FileNode file : original.getAllFileNodes()) {
+            var trimmedFile = trimmed.findFile(file.getRelativePath()).orElseThrow();
+
+            assertThat(trimmedFile.getMissedLineRanges()).isEqualTo(file.getMissedLineRanges());
+            assertThat(trimmedFile.getPartiallyCoveredLines()).isEqualTo(file.getPartiallyCoveredLines());
+            assertThat(trimmedFile.getSurvivedMutationsPerLine()).isEqualTo(file.getSurvivedMutationsPerLine());
+            assertThat(trimmedFile.getMutations()).allMatch(Mutation::hasSurvived);
+        }
+    }
+}
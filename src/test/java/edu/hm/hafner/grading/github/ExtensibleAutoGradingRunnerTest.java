@@ -0,0 +1,72 @@
+package edu.hm.hafner.grading.github;
+
+import org.junit.jupiter.api.Test;
+
+import edu.hm.hafner.grading.AggregatedScore;
+import edu.hm.hafner.grading.AutoGradingRunner;
+import edu.hm.hafner.grading.QualityGateResult;
+import edu.hm.hafner.util.FilteredLog;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ExtensibleAutoGradingRunnerTest {
+    private static final String CONFIGURATION = "/config/autograding.json";
+
+    @Test
+    void shouldLogSameSectionsAsAutoGradingRunner() {
+        var expected = run(LibraryRunner::new);
+        var actual = run(ConfiguredRunner::new);
+
+        assertThat(expected).contains("Autograding score - 144 of 300 (48%)");
+        assertThat(actual).containsSubsequence(expected);
+    }
+
+    private List<String> run(final Function<PrintStream, AutoGradingRunner> factory) {
+        var output = new ByteArrayOutputStream();
+        try (var stream = new PrintStream(output, true, StandardCharsets.UTF_8)) {
+            factory.apply(stream).run();
+        }
+        return output.toString(StandardCharsets.UTF_8).lines().toList();
+    }
+
+    private static class LibraryRunner extends AutoGradingRunner {
+        LibraryRunner(final PrintStream printStream) {
+            super(printStream);
+        }
+
+        @Override
+        protected void publishGradingResult(final AggregatedScore score, final QualityGateResult qualityGateResult,
+                final FilteredLog log) {
+            // nothing to publish
+        }
+
+        @Override
+        protected String getDefaultConfigurationPath() {
+            return CONFIGURATION;
+        }
+    }
+
+    private static class ConfiguredRunner extends ExtensibleAutoGradingRunner {
+        ConfiguredRunner(final PrintStream printStream) {
+            super(printStream, Map.of());
+        }
+
+        @Override
+        protected void publishGradingResult(final AggregatedScore score, final QualityGateResult qualityGateResult,
+                final FilteredLog log) {
+            // nothing to publish
+        }
+
+        @Override
+        protected String getDefaultConfigurationPath() {
+            return CONFIGURATION;
+        }
+    }
+}
@@ -3,22 +3,140 @@ package edu.hm.hafner.grading.github;
 import org.junit.jupiter.api.Test;
 
 import edu.hm.hafner.grading.AggregatedScore;
+import edu.hm.hafner.grading.CommentBuilder.CommentType;
 import edu.hm.hafner.util.FilteredLog;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.kohsuke.github.GHCheckRunBuilder.Annotation;
-import org.kohsuke.github.GHCheckRunBuilder.Output;
 
-import static org.mockito.Mockito.*;
+import static org.assertj.core.api.Assertions.*;
 
 class GitHubAnnotationBuilderTest {
     @Test
     void shouldSkipAnnotationsWhenEmpty() {
         var log = new FilteredLog("unused");
-        var output = mock(Output.class);
+        List<Annotation> annotations = new ArrayList<>();
 
-        new GitHubAnnotationsBuilder(output, "/tmp", log).createAnnotations(
+        new GitHubAnnotationsBuilder(annotations::add, "/tmp", log).createAnnotations(
                 new AggregatedScore(log));
 
-        verify(output, never()).add(any(Annotation.class));
+        assertThat(annotations).isEmpty();
+    }
+
+    @Test
+    void shouldCoalesceAdjacentMissedLines() {
+        var log = new FilteredLog("unused");
+        List<Annotation> annotations = new ArrayList<>();
+
+        var builder = new GitHubAnnotationsBuilder(annotations::add, "/tmp", log);
+        builder.createComment(CommentType.NO_COVERAGE, "A.java", 1, 1,
+                "Line 1 is not covered by tests", "Not covered line", -1, -1, "", "");
+        builder.createComment(CommentType.NO_COVERAGE, "A.java", 2, 4,
+                "Lines 2-4 are not covered by tests", "Not covered lines", -1, -1, "", "");
+        builder.createComment(CommentType.NO_COVERAGE, "A.java", 6, 6,
+                "Line 6 is not covered by tests", "Not covered line", -1, -1, "", "");
+        builder.createComment(CommentType.NO_COVERAGE, "B.java", 7, 8,
+                "Lines 7-8 are not covered by tests", "Not covered lines", -1, -1, "", "");
+        builder.createAnnotations(new AggregatedScore(log));
+
+        assertThat(annotations).extracting("path", "start_line", "end_line", "message", "title").containsExactly(
+                tuple("A.java", 1, 4, "Lines 1-4 are not covered by tests", "Not covered lines"),
+                tuple("A.java", 6, 6, "Line 6 is not covered by tests", "Not covered line"),
+                tuple("B.java", 7, 8, "Lines 7-8 are not covered by tests", "Not covered lines"));
+        assertThat(log.getInfoMessages()).contains(
+                "Coalesced 1 annotations of missed lines and skipped 0 duplicate annotations");
+    }
+
+    @Test
+    void shouldSkipDuplicateWarnings() {
+        var log = new FilteredLog("unused");
+        List<Annotation> annotations = new ArrayList<>();
+
+        var builder = new GitHubAnnotationsBuilder(annotations::add, "/tmp", log);
+        builder.createComment(CommentType.WARNING, "A.java", 10, 10,
+                "Unused import", "CheckStyle: UnusedImports", 1, 5, "", "");
+        builder.createComment(CommentType.WARNING, "A.java", 10, 10,
+                "Unused import", "PMD: UnnecessaryImport", 1, 5, "", "");
+        builder.createComment(CommentType.WARNING, "A.java", 11, 11,
+                "Unused import", "PMD: UnnecessaryImport", 1, 5, "", "");
+        builder.createAnnotations(new AggregatedScore(log));
+
+        assertThat(annotations).extracting("start_line", "title").containsExactly(
+                tuple(10, "CheckStyle: UnusedImports"), tuple(11, "PMD: UnnecessaryImport"));
+        assertThat(log.getInfoMessages()).contains(
+                "Coalesced 0 annotations of missed lines and skipped 1 duplicate annotations");
+    }
+
+    @Test
+    void shouldSkipAnnotationsOutsideOfChangedLines() {
+        var log = new FilteredLog("unused");
+        List<Annotation> annotations = new ArrayList<>();
+        var changedLines = new ChangedLines();
+        changedLines.addPatch("A.java", "@@ -1,1 +1,2 @@\n line\n+added");
+
+        var builder = new GitHubAnnotationsBuilder(annotations::add, "/tmp", log, changedLines);
+        builder.createComment(CommentType.WARNING, "A.java", 1, 1,
+                "Unchanged", "PMD", 1, 5, "", "");
+        builder.createComment(CommentType.WARNING, "A.java", 2, 2,
+                "Changed", "PMD", 1, 5, "", "");
+        builder.createComment(CommentType.WARNING, "B.java", 2, 2,
+                "Other file", "PMD", 1, 5, "", "");
+        builder.createAnnotations(new AggregatedScore(log));
+
+        assertThat(annotations).extracting("message").containsExactly("Changed");
+        assertThat(log.getInfoMessages()).contains("Skipped 2 annotations outside the changed lines");
+    }
+
+    @Test
+    void shouldPreferWarningsOfChangedFilesIfLimitIsSet() {
+        var log = new FilteredLog("unused");
+        List<Annotation> annotations = new ArrayList<>();
+        var changedLines = new ChangedLines();
+        changedLines.addPatch("B.java", "@@ -1,1 +1,2 @@\n line\n+added");
+
+        var builder = new GitHubAnnotationsBuilder(annotations::add, "/tmp", log,
+                changedLines.withoutFiltering(), "1", "");
+        builder.createComment(CommentType.WARNING, "A.java", 1, 1,
+                "Unchanged file", "PMD", 1, 5, "", "");
+        builder.createComment(CommentType.WARNING, "B.java", 2, 2,
+                "Changed file", "PMD", 1, 5, "", "");
+        builder.createAnnotations(new AggregatedScore(log));
+
+        assertThat(annotations).extracting("message").containsExactly("Changed file");
+        assertThat(log.getInfoMessages()).contains(">>>> MAX_WARNING_ANNOTATIONS: 1",
+                "Skipped 1 warning and 0 coverage annotations with lower priority due to the limits");
+    }
+
+    @Test
+    void shouldDeferSelectionOfAnnotations() {
+        var log = new FilteredLog("unused");
+        List<RankedAnnotation> deferred = new ArrayList<>();
+
+        var builder = new GitHubAnnotationsBuilder(deferred::add, "/tmp", log, "1", "");
+        builder.createComment(CommentType.WARNING, "A.java", 1, 1,
+                "Unchanged file", "PMD", 1, 5, "", "");
+        builder.createComment(CommentType.WARNING, "B.java", 2, 2,
+                "Changed file", "PMD", 1, 5, "", "");
+        builder.createComment(CommentType.NO_COVERAGE, "B.java", 0, 0,
+                "Not covered", "Not covered lines", 0, 0, "", "");
+        builder.createAnnotations(new AggregatedScore(log));
+
+        assertThat(deferred).extracting(RankedAnnotation::path, RankedAnnotation::lineStart,
+                RankedAnnotation::isWarning, RankedAnnotation::priority).containsExactly(
+                tuple("A.java", 1, true, 1L << 40),
+                tuple("B.java", 2, true, 1L << 40),
+                tuple("B.java", 0, false, 0L));
+
+        var changedLines = new ChangedLines();
+        changedLines.addPatch("B.java", "@@ -1,1 +1,2 @@\n line\n+added");
+        List<Annotation> annotations = new ArrayList<>();
+        new AnnotationSelector(annotations::add, changedLines.withoutFiltering(), "1", "", log)
+                .select(deferred::forEach);
+
+        assertThat(annotations).extracting("message").containsExactlyInAnyOrder("Changed file", "Not covered");
+        assertThat(log.getInfoMessages()).contains(
+                "Skipped 1 warning and 0 coverage annotations with lower priority due to the limits");
     }
 }
@@ -1,6 +1,8 @@
 package edu.hm.hafner.grading.github;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.testcontainers.DockerClientFactory;
 import org.testcontainers.containers.GenericContainer;
 import org.testcontainers.containers.output.ToStringConsumer;
 import org.testcontainers.containers.output.WaitingConsumer;
@@ -8,6 +10,10 @@ import org.testcontainers.utility.DockerImageName;
 import org.testcontainers.utility.MountableFile;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -113,6 +119,9 @@ public class GitHubAutoGradingRunnerDockerITest {
             }
             """;
     private static final String WS = "/github/workspace/target/";
+    private static final int STARTUP_RUNS = 3;
+    private static final long MEGA_BYTES = 1024 * 1024;
+    private static final String CDS_ARCHIVE = "/app/cds/autograding.jsa";
     private static final String QUALITY_GATES_OK = """
             {
               "qualityGates": [
@@ -264,8 +273,56 @@ public class GitHubAutoGradingRunnerDockerITest {
         }
     }
 
+    @Test
+    void shouldMeasureStartupTimeAndImageSize(final TestReporter reporter) throws TimeoutException {
+        var imageSize = getImageSize(getImageName());
+        assertThat(imageSize).isPositive();
+
+        var durations = new ArrayList<Duration>();
+        for (int run = 0; run < STARTUP_RUNS; run++) {
+            try (var container = createContainer()) {
+                var start = System.nanoTime();
+                startContainerWithAllFiles(container);
+
+                assertThat(readStandardOut(container)).contains("Autograding score - 351 of 500 (70%)")
+                        .as("CDS archive does not match the JVM of the image").doesNotContain("[cds]");
+                durations.add(Duration.ofNanos(System.nanoTime() - start));
+
+                container.copyFileFromContainer(CDS_ARCHIVE,
+                        archive -> assertThat(archive.readAllBytes()).as("CDS archive is missing").isNotEmpty());
+            }
+        }
+        var fastest = durations.stream().min(Comparator.naturalOrder()).orElseThrow();
+        var total = durations.stream().reduce(Duration.ZERO, Duration::plus);
+
+        reporter.publishEntry(Map.of(
+                "image", getImageName(),
+                "size [MB]", String.valueOf(imageSize / MEGA_BYTES),
+                "fastest run [ms]", String.valueOf(fastest.toMillis()),
+                "average run [ms]", String.valueOf(total.toMillis() / STARTUP_RUNS)));
+    }
+
+    /**
+     * Returns the name of the Docker image that should be tested.
+     *
+     * @return the image name
+     */
+    protected String getImageName() {
+        return "uhafner/autograding-github-action:6.1.0-SNAPSHOT";
+    }
+
+    static boolean isAvailable(final String imageName) {
+        return !DockerClientFactory.instance().client().listImagesCmd()
+                .withImageNameFilter(imageName).exec().isEmpty();
+    }
+
+    long getImageSize(final String imageName) {
+        var size = DockerClientFactory.instance().client().inspectImageCmd(imageName).exec().getSize();
+        return size == null ? 0 : size;
+    }
+
     private GenericContainer<?> createContainer() {
-        return new GenericContainer<>(DockerImageName.parse("uhafner/autograding-github-action:6.1.0-SNAPSHOT"));
+        return new GenericContainer<>(DockerImageName.parse(getImageName()));
     }
 
     private String readStandardOut(final GenericContainer<? extends GenericContainer<?>> container)
@@ -6,8 +6,11 @@ import org.junitpioneer.jupiter.SetEnvironmentVariable;
 import edu.hm.hafner.util.ResourceTest;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.PrintStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import static org.assertj.core.api.Assertions.*;
 
@@ -253,6 +256,81 @@ public class GitHubAutoGradingRunnerITest extends ResourceTest {
                         "Autograding score - 400 of 500");
     }
 
+    @Test
+    @SetEnvironmentVariable(key = "CONFIG", value = CONFIGURATION)
+    @SetEnvironmentVariable(key = "REPORT_CACHE_DIR", value = "target/report-cache")
+    void shouldReuseCachedResultsOfUnchangedReports() {
+        var firstRun = runAutoGrading();
+        var secondRun = runAutoGrading();
+
+        assertThat(secondRun)
+                .contains("Reusing cached results for Unittests (report files are unchanged)",
+                        "Reusing cached results for Line Coverage (report files are unchanged)",
+                        "Reusing cached results for CheckStyle (report files are unchanged)",
+                        "-> CheckStyle (checkstyle): 19 warnings (normal: 19)",
+                        "Autograding score - 322 of 500");
+        assertThat(firstRun).contains("Autograding score - 322 of 500");
+    }
+
+    @Test
+    @SetEnvironmentVariable(key = "CONFIG", value = CONFIGURATION)
+    @SetEnvironmentVariable(key = "PARALLELISM", value = "4")
+    void shouldGradeInParallel() {
+        assertThat(runAutoGrading())
+                .contains("-> Unittests Total: TESTS: 37",
+                        "-> Line Coverage Total: LINE: 10.93% (33/302)",
+                        "-> Mutation Coverage Total: MUTATION: 7.86% (11/140)",
+                        "-> CheckStyle (checkstyle): 19 warnings (normal: 19)",
+                        "-> PMD (pmd): 41 warnings (normal: 41)",
+                        "-> SpotBugs (spotbugs): 1 bug (low: 1)",
+                        "Autograding score - 322 of 500");
+    }
+
+    @Test
+    @SetEnvironmentVariable(key = "CONFIG", value = CONFIGURATION)
+    @SetEnvironmentVariable(key = "LOW_MEMORY", value = "true")
+    @SetEnvironmentVariable(key = "PARALLELISM", value = "4")
+    void shouldGradeInLowMemoryMode() {
+        assertThat(runAutoGrading())
+                .contains("Ignoring PARALLELISM in low memory mode, reading the reports sequentially",
+                        "-> Line Coverage Total: LINE: 10.93% (33/302)",
+                        "-> Mutation Coverage Total: MUTATION: 7.86% (11/140)",
+                        "Autograding score - 322 of 500");
+    }
+
+    @Test
+    @SetEnvironmentVariable(key = "CONFIG", value = CONFIGURATION)
+    @SetEnvironmentVariable(key = "PERFORMANCE_REPORT", value = "target/performance.json")
+    void shouldWritePerformanceReport() throws IOException {
+        assertThat(runAutoGrading()).contains("Wrote performance report to 'target/performance.json'");
+
+        assertThat(Files.readString(Path.of("target/performance.json"))).contains(
+                "\"name\" : \"configuration\"",
+                "\"name\" : \"parsing: CheckStyle\"",
+                "\"name\" : \"grading: analysis\"",
+                "\"name\" : \"rendering\"",
+                "\"name\" : \"total\"");
+    }
+
+    @Test
+    @SetEnvironmentVariable(key = "CONFIG", value = CONFIGURATION)
+    @SetEnvironmentVariable(key = "OUTPUT_MODE", value = "step")
+    @SetEnvironmentVariable(key = "GITHUB_STEP_SUMMARY", value = "target/step-summary.md")
+    @SetEnvironmentVariable(key = "GITHUB_OUTPUT", value = "target/step-output.env")
+    void shouldWriteResultsToStepSummaryAndOutputs() throws IOException {
+        var summary = Path.of("target/step-summary.md");
+        var outputs = Path.of("target/step-output.env");
+        Files.deleteIfExists(summary);
+        Files.deleteIfExists(outputs);
+
+        assertThat(runAutoGrading()).contains("Autograding score - 322 of 500")
+                .doesNotContain("No GITHUB_REPOSITORY defined - skipping");
+
+        assertThat(Files.readString(summary)).contains("GitHub Autograding Action - 322 of 500");
+        assertThat(Files.readAllLines(outputs)).contains("tests=37", "checkstyle=19", "pmd=41",
+                "score=322", "max-score=500", "conclusion=success");
+    }
+
     private String runAutoGrading() {
         var outputStream = new ByteArrayOutputStream();
         var runner = new GitHubAutoGradingRunner(new PrintStream(outputStream, true, StandardCharsets.UTF_8));
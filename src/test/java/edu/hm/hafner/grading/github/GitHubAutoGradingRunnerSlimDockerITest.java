@@ -0,0 +1,35 @@
+package edu.hm.hafner.grading.github;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.assertj.core.api.Assumptions.*;
+
+/**
+ * Integration test for the slim variant of the Docker image that uses a jlink runtime. Runs all tests of the default
+ * image and compares the sizes of both images. The slim image is built with the Maven profile {@code slim}, if it does
+ * not exist, then the tests are skipped.
+ *
+ * @author Ullrich Hafner
+ */
+public class GitHubAutoGradingRunnerSlimDockerITest extends GitHubAutoGradingRunnerDockerITest {
+    private static final String SLIM_IMAGE = "uhafner/autograding-github-action:6.1.0-SNAPSHOT-slim";
+
+    @BeforeAll
+    static void assumeSlimImageExists() {
+        assumeThat(isAvailable(SLIM_IMAGE)).as("Slim image %s has not been built", SLIM_IMAGE).isTrue();
+    }
+
+    @Override
+    protected String getImageName() {
+        return SLIM_IMAGE;
+    }
+
+    @Test
+    void shouldBeSmallerThanDefaultImage() {
+        assumeThat(isAvailable(super.getImageName())).as("Default image has not been built").isTrue();
+
+        assertThat(getImageSize(SLIM_IMAGE)).isLessThan(getImageSize(super.getImageName()));
+    }
+}
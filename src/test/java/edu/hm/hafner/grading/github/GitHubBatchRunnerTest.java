@@ -0,0 +1,40 @@
+package edu.hm.hafner.grading.github;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.hm.hafner.grading.github.GitHubBatchRunner.BatchEntry;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+class GitHubBatchRunnerTest {
+    @Test
+    void shouldReplaceRepositorySpecificVariables() throws Exception {
+        var entry = BatchEntry.from(new ObjectMapper().readTree("""
+                {"repository": "owner/repo", "sha": "abc", "report-directory": "work/repo",
+                 "config": {"tests": []}}
+                """));
+
+        var environment = entry.createEnvironment(Map.of(
+                "GITHUB_TOKEN", "token", "PR_NUMBER", "42", "COMMENT_STATE_FILE", "state.json", "CONFIG", "{}",
+                "GITHUB_OUTPUT", "output.env", "GITHUB_STEP_SUMMARY", "summary.md", "EXPORT_JSON", "score.json"));
+
+        assertThat(environment).containsExactlyInAnyOrderEntriesOf(Map.of(
+                "GITHUB_TOKEN", "token",
+                "GITHUB_REPOSITORY", "owner/repo",
+                "SHA", "abc",
+                "PR_NUMBER", "",
+                "REPORT_DIRECTORY", "work/repo",
+                "CONFIG", "{\"tests\":[]}"));
+    }
+
+    @Test
+    void shouldRejectEntryWithoutRepository() {
+        assertThatIllegalArgumentException().isThrownBy(
+                () -> BatchEntry.from(new ObjectMapper().readTree("{\"sha\": \"abc\"}")))
+                .withMessageContaining("no repository");
+    }
+}
@@ -0,0 +1,208 @@
+package edu.hm.hafner.grading.github;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import edu.hm.hafner.util.FilteredLog;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.kohsuke.github.GHCheckRun;
+import org.kohsuke.github.GHCheckRunBuilder;
+import org.kohsuke.github.GHIssueComment;
+import org.kohsuke.github.GHPullRequest;
+import org.kohsuke.github.GHRepository;
+import org.kohsuke.github.GitHub;
+import org.kohsuke.github.PagedIterable;
+import org.kohsuke.github.PagedIterator;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class GitHubPublisherTest {
+    private static final String REPOSITORY = "uhafner/autograding-github-action";
+    private static final String DETAILS_URL = "https://github.com/uhafner/autograding-github-action/runs/1";
+
+    @Test
+    void shouldCreateCheckRunWithoutComment() throws IOException {
+        var github = mock(GitHub.class);
+        var repository = mockRepository(github);
+        var checkRun = mockCheckRun();
+        Consumer<GHCheckRun> annotations = createAnnotationsPublisher();
+
+        var log = new FilteredLog("unused");
+        new GitHubPublisher(new GitHubClient(github), REPOSITORY, createLocator(log), log).publish(
+                r -> mockBuilder(checkRun), annotations, "", "", "Summary", "Link");
+
+        verify(annotations).accept(checkRun);
+        verify(repository, never()).getPullRequest(anyInt());
+        assertThat(log.getErrorMessages()).isEmpty();
+    }
+
+    @Test
+    void shouldRemovePreviousCommentAndCreateNewComment() throws IOException {
+        var github = mock(GitHub.class);
+        var repository = mockRepository(github);
+        var checkRun = mockCheckRun();
+        var previous = mockComment(GitHubPublisher.COMMENT_MARKER + " old");
+        var pullRequest = mockPullRequest(repository, mockComment("other"), previous);
+
+        var log = new FilteredLog("unused");
+        new GitHubPublisher(new GitHubClient(github), REPOSITORY, createLocator(log), log).publish(
+                r -> mockBuilder(checkRun), createAnnotationsPublisher(), "1", "", "Summary", "Link");
+
+        verify(previous).delete();
+        verify(previous, never()).update(anyString());
+        verify(pullRequest).comment(argThat(
+                body -> body.startsWith(GitHubPublisher.COMMENT_MARKER) && body.contains("Summary")
+                        && body.contains(DETAILS_URL)));
+        assertThat(log.getErrorMessages()).isEmpty();
+    }
+
+    @Test
+    void shouldUpdatePreviousComment() throws IOException {
+        var github = mock(GitHub.class);
+        var repository = mockRepository(github);
+        var checkRun = mockCheckRun();
+        var previous = mockComment(GitHubPublisher.COMMENT_MARKER + " old");
+        var pullRequest = mockPullRequest(repository, previous);
+
+        var log = new FilteredLog("unused");
+        new GitHubPublisher(new GitHubClient(github), REPOSITORY, createLocator(log), log).publish(
+                r -> mockBuilder(checkRun), createAnnotationsPublisher(), "1", "UPDATE", "Summary", "Link");
+
+        verify(previous, never()).delete();
+        verify(previous).update(contains(DETAILS_URL));
+        verify(pullRequest, never()).comment(anyString());
+    }
+
+    @ParameterizedTest(name = "Strategy: {0}")
+    @ValueSource(strings = {"", "REMOVE", "UPDATE"})
+    void shouldSkipUnchangedComment(final String strategy) throws IOException {
+        var github = mock(GitHub.class);
+        var repository = mockRepository(github);
+        var checkRun = mockCheckRun();
+        var previous = mockComment(GitHubPublisher.COMMENT_MARKER
+                + "\n\nSummary\n\n<hr />\n\nCreated by Link. More details are shown in the previous check.\n");
+        var pullRequest = mockPullRequest(repository, previous);
+
+        var log = new FilteredLog("unused");
+        new GitHubPublisher(new GitHubClient(github), REPOSITORY, createLocator(log), log).publish(
+                r -> mockBuilder(checkRun), createAnnotationsPublisher(), "1", strategy, "Summary", "Link");
+
+        verify(previous, never()).delete();
+        verify(previous, never()).update(anyString());
+        verify(pullRequest, never()).comment(anyString());
+        assertThat(log.getInfoMessages()).contains("Skipping comment for PR#1, the summary is unchanged");
+    }
+
+    @Test
+    void shouldCommentEvenIfCheckRunFails() throws IOException {
+        var github = mock(GitHub.class);
+        var repository = mockRepository(github);
+        var pullRequest = mockPullRequest(repository);
+        var builder = mock(GHCheckRunBuilder.class);
+        when(builder.create()).thenThrow(new IOException("Check failed"));
+        Consumer<GHCheckRun> annotations = createAnnotationsPublisher();
+
+        var log = new FilteredLog("unused");
+        new GitHubPublisher(new GitHubClient(github), REPOSITORY, createLocator(log), log).publish(
+                r -> builder, annotations, "1", "", "Summary", "Link");
+
+        verify(annotations, never()).accept(any());
+        verify(pullRequest).comment(contains("could not be created"));
+        assertThat(log.getErrorMessages()).contains("Could not create check: Check failed");
+    }
+
+    @Test
+    void shouldLogErrorIfRepositoryIsNotAvailable() throws IOException {
+        var github = mock(GitHub.class);
+        when(github.getRepository(REPOSITORY)).thenThrow(new IOException("Not found"));
+
+        var log = new FilteredLog("unused");
+        new GitHubPublisher(new GitHubClient(github), REPOSITORY, createLocator(log), log).publish(
+                r -> mock(GHCheckRunBuilder.class), createAnnotationsPublisher(), "1", "", "Summary", "Link");
+
+        assertThat(log.getErrorMessages()).contains("Could create GitHub comments: Not found");
+    }
+
+    @Test
+    void shouldSkipCommentsThatQuoteTheMarker() throws IOException {
+        var github = mock(GitHub.class);
+        var repository = mockRepository(github);
+        var checkRun = mockCheckRun();
+        var quote = mockComment("> " + GitHubPublisher.COMMENT_MARKER);
+        var previous = mockComment(GitHubPublisher.COMMENT_MARKER + " old");
+        mockPullRequest(repository, quote, previous);
+
+        var log = new FilteredLog("unused");
+        new GitHubPublisher(new GitHubClient(github), REPOSITORY, createLocator(log), log).publish(
+                r -> mockBuilder(checkRun), createAnnotationsPublisher(), "1", "", "Summary", "Link");
+
+        verify(quote, never()).delete();
+        verify(previous).delete();
+    }
+
+    private CommentLocator createLocator(final FilteredLog log) {
+        return new CommentLocator(GitHubPublisher.COMMENT_MARKER, "", () -> "", log);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Consumer<GHCheckRun> createAnnotationsPublisher() {
+        return mock(Consumer.class);
+    }
+
+    private GHRepository mockRepository(final GitHub github) throws IOException {
+        var repository = mock(GHRepository.class);
+        when(github.getRepository(REPOSITORY)).thenReturn(repository);
+        return repository;
+    }
+
+    private GHCheckRun mockCheckRun() throws IOException {
+        var checkRun = mock(GHCheckRun.class);
+        when(checkRun.getDetailsUrl()).thenReturn(URI.create(DETAILS_URL).toURL());
+        return checkRun;
+    }
+
+    private GHCheckRunBuilder mockBuilder(final GHCheckRun checkRun) {
+        var builder = mock(GHCheckRunBuilder.class);
+        try {
+            when(builder.create()).thenReturn(checkRun);
+        }
+        catch (IOException exception) {
+            throw new AssertionError(exception);
+        }
+        return builder;
+    }
+
+    @SuppressWarnings("deprecation")
+    private GHIssueComment mockComment(final String body) {
+        var comment = mock(GHIssueComment.class);
+        when(comment.getBody()).thenReturn(body);
+        when(comment.getUserName()).thenReturn("github-actions[bot]");
+        return comment;
+    }
+
+    @SuppressWarnings("unchecked")
+    private GHPullRequest mockPullRequest(final GHRepository repository, final GHIssueComment... comments)
+            throws IOException {
+        var pullRequest = mock(GHPullRequest.class);
+        when(repository.getPullRequest(1)).thenReturn(pullRequest);
+
+        PagedIterable<GHIssueComment> iterable = mock(PagedIterable.class);
+        PagedIterator<GHIssueComment> iterator = mock(PagedIterator.class);
+        var elements = List.of(comments).iterator();
+        when(iterator.hasNext()).thenAnswer(i -> elements.hasNext());
+        when(iterator.next()).thenAnswer(i -> elements.next());
+        when(iterable.iterator()).thenReturn(iterator);
+        when(iterable.withPageSize(anyInt())).thenReturn(iterable);
+        when(pullRequest.listComments()).thenReturn(iterable);
+
+        return pullRequest;
+    }
+}
@@ -0,0 +1,307 @@
+package edu.hm.hafner.grading.github;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import org.apache.commons.lang3.StringUtils;
+
+import edu.hm.hafner.util.FilteredLog;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.kohsuke.github.GHCheckRun.AnnotationLevel;
+import org.kohsuke.github.GHCheckRun.Conclusion;
+import org.kohsuke.github.GHCheckRunBuilder.Annotation;
+
+import static org.assertj.core.api.Assertions.*;
+
+class OutboxTest {
+    private static final String REPOSITORY = "/repos/owner/repo";
+    private static final String CHECK_RUNS = REPOSITORY + "/check-runs";
+    private static final String COMMENTS = REPOSITORY + "/issues/1/comments";
+
+    private final List<String> requests = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger failures = new AtomicInteger();
+    private final AtomicInteger commentFailures = new AtomicInteger();
+    private final AtomicReference<String> externalId = new AtomicReference<>("");
+    private final List<Duration> delays = new ArrayList<>();
+    private HttpServer server;
+    private String apiUrl;
+
+    @BeforeEach
+    void startGitHubStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+        apiUrl = "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void stopGitHubStub() {
+        server.stop(0);
+    }
+
+    @Test
+    void shouldPublishQueuedResultsWithRetries(@TempDir final Path directory) {
+        failures.set(1);
+        var log = new FilteredLog("Errors:");
+        var outbox = new Outbox(directory, log);
+        outbox.add(createPublication(), consumer -> consumer.accept(createAnnotation(10, 12, "Not covered")));
+
+        assertThat(outbox.getEntries()).hasSize(1);
+        assertThat(requests).isEmpty();
+
+        var output = drain(directory, "2");
+
+        assertThat(outbox.getEntries()).isEmpty();
+        assertThat(delays).containsExactly(Duration.ofSeconds(1));
+        assertThat(requests)
+                .filteredOn(request -> request.startsWith("POST " + CHECK_RUNS)).hasSize(2)
+                .allSatisfy(request -> assertThat(request).contains("\"external_id\":\"digest\""))
+                .last().asString().contains("\"conclusion\":\"success\"");
+        assertThat(requests).last().asString()
+                .startsWith("PATCH " + CHECK_RUNS + "/1")
+                .contains("\"path\":\"src/Main.java\"", "\"start_line\":10", "\"end_line\":12",
+                        "\"title\":\"Not covered lines\"");
+        assertThat(output).contains("Attempt 1 to publish", "Successfully created check");
+    }
+
+    @Test
+    void shouldUploadQueuedAnnotationsInBatches(@TempDir final Path directory) {
+        var log = new FilteredLog("Errors:");
+        var outbox = new Outbox(directory, log);
+        var count = AnnotationsUploader.MAX_ANNOTATIONS_PER_REQUEST + 1;
+        outbox.add(createPublication(), consumer -> {
+            for (int line = 1; line <= count; line++) {
+                consumer.accept(createAnnotation(line, line, "Warning"));
+            }
+        });
+
+        drain(directory, "1");
+
+        assertThat(outbox.getEntries()).isEmpty();
+        assertThat(requests).filteredOn(request -> request.startsWith("PATCH " + CHECK_RUNS + "/1")).hasSize(2)
+                .last().asString().contains("\"start_line\":" + count).doesNotContain("\"start_line\":1,");
+    }
+
+    @Test
+    void shouldSelectQueuedAnnotationsOfChangedLinesWhenDraining(@TempDir final Path directory) {
+        var log = new FilteredLog("Errors:");
+        var outbox = new Outbox(directory, log);
+        outbox.add(new Publication("owner/repo", "sha", "Title", Conclusion.SUCCESS, "Text", "Summary", "Details",
+                "digest", "1", "", "PR Summary", "Link", true, "", "1"), consumer -> {
+                    consumer.accept(createAnnotation(1, 2, "Unchanged"));
+                    consumer.accept(createAnnotation(5, 6, "Changed"));
+                    consumer.accept(createAnnotation(7, 7, "Also changed"));
+                });
+
+        assertThat(requests).isEmpty();
+
+        var output = drain(directory, "1");
+
+        assertThat(outbox.getEntries()).isEmpty();
+        assertThat(requests).filteredOn(request -> request.startsWith("PATCH " + CHECK_RUNS + "/1")).singleElement()
+                .asString().contains("\"message\":\"Changed\"")
+                .doesNotContain("Unchanged", "Also changed");
+        assertThat(output).contains("Found 3 changed lines in 1 files of the pull request",
+                "Skipped 1 annotations outside the changed lines",
+                "Skipped 0 warning and 1 coverage annotations with lower priority due to the limits");
+    }
+
+    @Test
+    void shouldKeepEntryIfPublishingFails(@TempDir final Path directory) {
+        failures.set(Integer.MAX_VALUE);
+        var log = new FilteredLog("Errors:");
+        var outbox = new Outbox(directory, log);
+        outbox.add(createPublication(), consumer -> { });
+
+        assertThatIllegalStateException().isThrownBy(() -> drain(directory, "3"));
+
+        assertThat(outbox.getEntries()).hasSize(1);
+        assertThat(delays).containsExactly(Duration.ofSeconds(1), Duration.ofSeconds(2));
+    }
+
+    @Test
+    void shouldNotOverwriteEntriesWithTheSameDigest(@TempDir final Path directory) {
+        var log = new FilteredLog("Errors:");
+        var outbox = new Outbox(directory, log);
+        for (int i = 0; i < 10; i++) {
+            outbox.add(createPublication(), consumer -> { });
+        }
+
+        assertThat(outbox.getEntries()).hasSize(10);
+        assertThat(log.getErrorMessages()).isEmpty();
+    }
+
+    @Test
+    void shouldRemoveTemporaryFileIfAnnotationsFail(@TempDir final Path directory) throws IOException {
+        var log = new FilteredLog("Errors:");
+        var outbox = new Outbox(directory, log);
+
+        assertThatIllegalStateException().isThrownBy(() -> outbox.add(createPublication(), consumer -> {
+            throw new IllegalStateException("Broken report");
+        }));
+
+        try (var files = Files.list(directory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void shouldPublishCommentAgainIfCommentFailed(@TempDir final Path directory) {
+        commentFailures.set(1);
+        var log = new FilteredLog("Errors:");
+        var outbox = new Outbox(directory, log);
+        outbox.add(createPublication("1"), consumer -> { });
+
+        var output = drain(directory, "2");
+
+        assertThat(outbox.getEntries()).isEmpty();
+        assertThat(requests).filteredOn(request -> request.startsWith("POST " + COMMENTS)).hasSize(2);
+        assertThat(requests).filteredOn(request -> request.startsWith("POST " + CHECK_RUNS)).singleElement()
+                .asString().contains("\"external_id\":\"digest\"");
+        assertThat(externalId).hasValue("digest");
+        assertThat(output).contains("Attempt 1 to publish", "Skipping check, results are unchanged",
+                "Successfully created new comment for PR#1");
+    }
+
+    @Test
+    void shouldSkipPublishedResults(@TempDir final Path directory) {
+        externalId.set("digest");
+        var log = new FilteredLog("Errors:");
+        var outbox = new Outbox(directory, log);
+        outbox.add(createPublication(), consumer -> { });
+
+        var output = drain(directory, "1");
+
+        assertThat(outbox.getEntries()).isEmpty();
+        assertThat(requests).noneMatch(request -> request.startsWith("POST") || request.startsWith("PATCH"));
+        assertThat(output).contains("Skipping check, results are unchanged");
+    }
+
+    private String drain(final Path directory, final String attempts) {
+        var output = new ByteArrayOutputStream();
+        try (var printStream = new PrintStream(output, true, StandardCharsets.UTF_8)) {
+            new OutboxRunner(printStream, Map.of("OUTBOX", directory.toString(), "OUTBOX_ATTEMPTS", attempts,
+                    "GITHUB_TOKEN", "ghs_token", "GITHUB_API_URL", apiUrl), delays::add).run();
+        }
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    private Publication createPublication() {
+        return createPublication("");
+    }
+
+    private Publication createPublication(final String prNumber) {
+        return new Publication("owner/repo", "sha", "Title", Conclusion.SUCCESS, "Text", "Summary", "Details",
+                "digest", prNumber, "", "PR Summary", "Link", false, "", "");
+    }
+
+    private RankedAnnotation createAnnotation(final int lineStart, final int lineEnd, final String message) {
+        return new RankedAnnotation(new Annotation("src/Main.java", lineStart, lineEnd, AnnotationLevel.WARNING,
+                message).withTitle("Not covered lines"), "src/Main.java", lineStart, lineEnd, false, 0);
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        var method = exchange.getRequestMethod();
+        var path = exchange.getRequestURI().getPath();
+        var body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        requests.add(method + " " + path + " " + body);
+
+        if (path.endsWith("/pulls/1/files")) {
+            respond(exchange, 200, "[{\"filename\": \"src/Main.java\", "
+                    + "\"patch\": \"@@ -4,3 +4,6 @@\\n line\\n+added\\n+added\\n+added\\n line\"}]");
+        }
+        else if (path.startsWith(COMMENTS) || path.endsWith("/pulls/1")) {
+            handlePullRequest(exchange, method, path);
+        }
+        else if ("GET".equals(method) && REPOSITORY.equals(path)) {
+            respond(exchange, 200, "{\"id\": 1, \"name\": \"repo\", \"full_name\": \"owner/repo\", "
+                    + "\"owner\": {\"login\": \"owner\"}, \"url\": \"" + apiUrl + REPOSITORY + "\"}");
+        }
+        else if (path.startsWith(CHECK_RUNS) || path.endsWith("/check-runs")) {
+            handleCheckRuns(exchange, method, path, body);
+        }
+        else {
+            respond(exchange, 404, "{\"message\": \"Not Found\"}");
+        }
+    }
+
+    private void handleCheckRuns(final HttpExchange exchange, final String method, final String path,
+            final String body) throws IOException {
+        var isPost = "POST".equals(method);
+        if (path.endsWith("/check-runs") && !isPost) {
+            respond(exchange, 200, createCheckRuns());
+        }
+        else if (isPost && CHECK_RUNS.equals(path) && failures.getAndDecrement() > 0) {
+            respond(exchange, 422, "{\"message\": \"Validation Failed\"}");
+        }
+        else {
+            recordExternalId(path, body);
+            respond(exchange, 201, "{\"id\": 1, \"name\": \"Title\", \"head_sha\": \"sha\", "
+                    + "\"url\": \"" + apiUrl + CHECK_RUNS + "/1\", "
+                    + "\"details_url\": \"" + apiUrl + "/owner/repo/runs/1\"}");
+        }
+    }
+
+    private void recordExternalId(final String path, final String body) {
+        if (path.startsWith(CHECK_RUNS) && body.contains("\"external_id\"")) {
+            externalId.set(StringUtils.substringBetween(body, "\"external_id\":\"", "\""));
+        }
+    }
+
+    // the check run is returned only after it has been created with its digest
+    private String createCheckRuns() {
+        if (StringUtils.isEmpty(externalId.get())) {
+            return "{\"total_count\": 0, \"check_runs\": []}";
+        }
+        return "{\"total_count\": 1, \"check_runs\": [{\"id\": 1, \"name\": \"Title\", "
+                + "\"external_id\": \"" + externalId.get() + "\", "
+                + "\"html_url\": \"" + apiUrl + "/owner/repo/runs/1\", "
+                + "\"details_url\": \"" + apiUrl + "/owner/repo/runs/1\"}]}";
+    }
+
+    private void handlePullRequest(final HttpExchange exchange, final String method, final String path)
+            throws IOException {
+        var isPost = "POST".equals(method);
+        if (!COMMENTS.equals(path)) {
+            respond(exchange, 200, "{\"id\": 10, \"number\": 1, \"url\": \"" + apiUrl + path + "\"}");
+        }
+        else if (!isPost) {
+            respond(exchange, 200, "[]");
+        }
+        else if (commentFailures.getAndDecrement() > 0) {
+            respond(exchange, 422, "{\"message\": \"Validation Failed\"}");
+        }
+        else {
+            respond(exchange, 201, "{\"id\": 5, \"body\": \"Comment\"}");
+        }
+    }
+
+    private void respond(final HttpExchange exchange, final int status, final String body) throws IOException {
+        var bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (var response = exchange.getResponseBody()) {
+            response.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package edu.hm.hafner.grading.github;
+
+import org.junit.jupiter.api.Test;
+
+import edu.hm.hafner.grading.AggregatedScore;
+import edu.hm.hafner.grading.AnalysisConfiguration;
+import edu.hm.hafner.grading.CoverageConfiguration;
+import edu.hm.hafner.grading.FileSystemToolParser;
+import edu.hm.hafner.grading.GradingReport;
+import edu.hm.hafner.grading.TestConfiguration;
+import edu.hm.hafner.grading.ToolParser;
+import edu.hm.hafner.util.FilteredLog;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ParallelToolParserTest {
+    private static final String CONFIGURATION = """
+            {
+              "tests": {
+                "tools": [
+                  {
+                    "id": "junit",
+                    "name": "Unittests",
+                    "pattern": "**/src/test/resources/junit/TEST*.xml"
+                  }
+                ],
+                "name": "JUnit",
+                "passedImpact": 1,
+                "failureImpact": -5,
+                "maxScore": 100
+              },
+              "analysis": [
+                {
+                  "name": "Style",
+                  "id": "style",
+                  "tools": [
+                    {
+                      "id": "checkstyle",
+                      "name": "CheckStyle",
+                      "pattern": "**/src/test/resources/checkstyle/checkstyle*.xml"
+                    },
+                    {
+                      "id": "pmd",
+                      "name": "PMD",
+                      "pattern": "**/src/test/resources/pmd/pmd*.xml"
+                    },
+                    {
+                      "id": "spotbugs",
+                      "name": "SpotBugs",
+                      "pattern": "**/does-not-exist/spotbugs.xml"
+                    }
+                  ],
+                  "normalImpact": -1,
+                  "maxScore": 100
+                }
+              ],
+              "coverage": [
+                {
+                  "tools": [
+                    {
+                      "id": "jacoco",
+                      "name": "Line Coverage",
+                      "metric": "line",
+                      "pattern": "**/src/test/resources/jacoco/jacoco.xml"
+                    },
+                    {
+                      "id": "pit",
+                      "name": "Mutation Coverage",
+                      "metric": "mutation",
+                      "pattern": "**/src/test/resources/pit/mutations.xml"
+                    }
+                  ],
+                  "name": "Coverage",
+                  "maxScore": 100,
+                  "missedPercentageImpact": -1
+                }
+              ]
+            }
+            """;
+
+    @Test
+    void shouldCreateSameScoreAndLogAsSequentialParser() {
+        var sequentialLog = new FilteredLog("Errors:");
+        var sequential = grade(new FileSystemToolParser(), sequentialLog);
+
+        var parallelLog = new FilteredLog("Errors:");
+        var parallel = grade(new ParallelToolParser(new FileSystemToolParser(), 4, CONFIGURATION), parallelLog);
+
+        assertThat(parallel.getMetrics()).isEqualTo(sequential.getMetrics()).isNotEmpty();
+        assertThat(new GradingReport().getMarkdownDetails(parallel))
+                .isEqualTo(new GradingReport().getMarkdownDetails(sequential));
+        assertThat(parallelLog.getInfoMessages()).isEqualTo(sequentialLog.getInfoMessages());
+        assertThat(parallelLog.getErrorMessages()).isEqualTo(sequentialLog.getErrorMessages())
+                .contains("Errors:");
+    }
+
+    @Test
+    void shouldRethrowExceptionsOfParser() {
+        var parser = mock(ToolParser.class);
+        when(parser.readReport(any(), any())).thenThrow(new IllegalArgumentException("Unknown parser"));
+
+        var parallelParser = new ParallelToolParser(parser, 2, CONFIGURATION);
+        var tool = AnalysisConfiguration.from(CONFIGURATION).get(0).getTools().get(0);
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> parallelParser.readReport(tool, new FilteredLog("Errors:")))
+                .withMessage("Unknown parser");
+    }
+
+    private AggregatedScore grade(final ToolParser parser, final FilteredLog log) {
+        var score = new AggregatedScore(log);
+        score.gradeTests(parser, TestConfiguration.from(CONFIGURATION));
+        score.gradeCoverage(parser, CoverageConfiguration.from(CONFIGURATION));
+        score.gradeAnalysis(parser, AnalysisConfiguration.from(CONFIGURATION));
+        return score;
+    }
+}
@@ -0,0 +1,20 @@
+package edu.hm.hafner.grading.github;
+
+import org.junit.jupiter.api.Test;
+
+import edu.hm.hafner.analysis.registry.ParserRegistry;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ParserNamesTest {
+    @Test
+    void shouldProvideNamesOfParserRegistry() {
+        assertThat(ParserNames.class.getResource(ParserNames.INDEX)).as("Index has not been generated").isNotNull();
+
+        var registry = new ParserRegistry();
+        for (var descriptor : registry.getAllDescriptors()) {
+            assertThat(ParserNames.getName(descriptor.getId())).contains(descriptor.getName());
+        }
+        assertThat(ParserNames.getName("line")).isEmpty();
+    }
+}
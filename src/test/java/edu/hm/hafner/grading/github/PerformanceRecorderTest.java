@@ -0,0 +1,40 @@
+package edu.hm.hafner.grading.github;
+
+import org.junit.jupiter.api.Test;
+
+import edu.hm.hafner.grading.github.PerformanceRecorder.Measurement;
+
+import static org.assertj.core.api.Assertions.*;
+
+class PerformanceRecorderTest {
+    @Test
+    void shouldRecordPhasesInOrderOfFirstInvocation() {
+        var performance = new PerformanceRecorder();
+
+        performance.record("parsing", 3_000_000);
+        performance.record("rendering", 1_000_000);
+        performance.record("parsing", 5_000_000);
+
+        assertThat(performance.getMeasurements()).containsExactly(
+                new Measurement("parsing", 2, 8_000_000, 5_000_000),
+                new Measurement("rendering", 1, 1_000_000, 1_000_000));
+        assertThat(performance.toMarkdown()).contains(
+                "| parsing | 2 | 8.0 | 5.0 |",
+                "| rendering | 1 | 1.0 | 1.0 |");
+        assertThat(performance.toJson()).contains("\"name\" : \"parsing\"", "\"count\" : 2",
+                "\"totalMillis\" : 8.0", "\"maxMillis\" : 5.0");
+    }
+
+    @Test
+    void shouldMeasurePhases() {
+        var performance = new PerformanceRecorder();
+
+        assertThat(performance.measure("parsing", () -> "result")).isEqualTo("result");
+        assertThatIllegalStateException().isThrownBy(() -> performance.run("rendering", () -> {
+            throw new IllegalStateException("failed");
+        }));
+
+        assertThat(performance.getMeasurements()).extracting(Measurement::name, Measurement::count)
+                .containsExactly(tuple("parsing", 1L), tuple("rendering", 1L));
+    }
+}
@@ -0,0 +1,202 @@
+package edu.hm.hafner.grading.github;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import edu.hm.hafner.util.FilteredLog;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.kohsuke.github.HttpException;
+import org.kohsuke.github.connector.GitHubConnector;
+import org.kohsuke.github.connector.GitHubConnectorRequest;
+import org.kohsuke.github.connector.GitHubConnectorResponse;
+import org.kohsuke.github.extras.HttpClientGitHubConnector;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RateLimitSchedulerTest {
+    private static final String REPOSITORY = "uhafner/autograding-github-action";
+    private static final String REPOSITORY_JSON = """
+            {"name": "autograding-github-action", "full_name": "uhafner/autograding-github-action"}
+            """;
+    private static final Instant NOW = Instant.ofEpochSecond(1_700_000_000L);
+
+    private final List<Duration> sleeps = new ArrayList<>();
+    private final ConcurrentLinkedQueue<StubResponse> responses = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger requests = new AtomicInteger();
+    private HttpServer server;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", this::respond);
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void shouldWaitForRetryAfterOfSecondaryRateLimit() throws IOException {
+        responses.add(new StubResponse(403, Map.of("Retry-After", "7"),
+                "{\"message\": \"You have exceeded a secondary rate limit.\"}"));
+        responses.add(new StubResponse(200, Map.of(), REPOSITORY_JSON));
+
+        var scheduler = createScheduler(0.5);
+        var client = createClient(scheduler);
+
+        assertThat(client.getRepository(REPOSITORY).getFullName()).isEqualTo(REPOSITORY);
+        assertThat(sleeps).containsExactly(Duration.ofSeconds(7));
+        assertThat(requests).hasValue(2);
+        assertThat(scheduler.getRetries()).isOne();
+        assertThat(scheduler.getWaitTime()).isEqualTo(Duration.ofSeconds(7));
+
+        var log = new FilteredLog("Errors");
+        client.logRateLimitStatistics(log);
+        assertThat(log.getInfoMessages()).contains("Waited 7000 ms for GitHub rate limits (1 retried requests)");
+    }
+
+    @Test
+    void shouldBackOffForSecondaryRateLimitWithoutHeaders() throws IOException {
+        for (int i = 0; i < 2; i++) {
+            responses.add(new StubResponse(403, Map.of(),
+                    "{\"message\": \"You have exceeded a secondary rate limit. Please wait a few minutes.\"}"));
+        }
+        responses.add(new StubResponse(200, Map.of(), REPOSITORY_JSON));
+
+        var scheduler = createScheduler(0.5);
+
+        assertThat(createClient(scheduler).getRepository(REPOSITORY).getFullName()).isEqualTo(REPOSITORY);
+        assertThat(sleeps).containsExactly(Duration.ofSeconds(75), RateLimitScheduler.MAX_DELAY);
+        assertThat(requests).hasValue(3);
+    }
+
+    @Test
+    void shouldWaitUntilPrimaryRateLimitIsReset() throws IOException {
+        responses.add(new StubResponse(403, Map.of("X-RateLimit-Remaining", "0",
+                "X-RateLimit-Reset", String.valueOf(NOW.getEpochSecond() + 30)), "{\"message\": \"API rate limit\"}"));
+        responses.add(new StubResponse(200, Map.of(), REPOSITORY_JSON));
+
+        var scheduler = createScheduler(0.5);
+
+        assertThat(createClient(scheduler).getRepository(REPOSITORY).getFullName()).isEqualTo(REPOSITORY);
+        assertThat(sleeps).containsExactly(Duration.ofSeconds(31));
+    }
+
+    @Test
+    void shouldUseJitteredExponentialBackoffForServerErrors() {
+        for (int i = 0; i <= RateLimitScheduler.MAX_RETRIES; i++) {
+            responses.add(new StubResponse(502, Map.of(), "{\"message\": \"Bad Gateway\"}"));
+        }
+
+        var scheduler = createScheduler(1.0);
+
+        assertThatExceptionOfType(HttpException.class).isThrownBy(
+                () -> createClient(scheduler).getRepository(REPOSITORY));
+        assertThat(sleeps).containsExactly(Duration.ofSeconds(1), Duration.ofSeconds(2), Duration.ofSeconds(4),
+                Duration.ofSeconds(8), Duration.ofSeconds(16));
+        assertThat(requests).hasValue(RateLimitScheduler.MAX_RETRIES + 1);
+    }
+
+    @Test
+    void shouldRetryModifyingRequestsOnlyForRateLimits() throws IOException {
+        try (var serverError = createResponse(502, Map.of());
+                var rateLimit = createResponse(403, Map.of("Retry-After", "3"));
+                var created = createResponse(201, Map.of())) {
+            var delegate = mock(GitHubConnector.class);
+            when(delegate.send(any())).thenReturn(serverError, rateLimit, created);
+            var request = mock(GitHubConnectorRequest.class);
+            when(request.method()).thenReturn("POST");
+
+            var scheduler = new RateLimitScheduler(delegate, sleeps::add, () -> 0.5,
+                    Clock.fixed(NOW, ZoneOffset.UTC));
+
+            assertThat(scheduler.send(request)).isSameAs(serverError);
+            assertThat(sleeps).isEmpty();
+
+            assertThat(scheduler.send(request)).isSameAs(created);
+            assertThat(sleeps).containsExactly(Duration.ofSeconds(3));
+        }
+    }
+
+    @Test
+    void shouldNotRetryIfTokenHasNoPermission() {
+        responses.add(new StubResponse(403, Map.of(), "{\"message\": \"Resource not accessible by integration\"}"));
+
+        var scheduler = createScheduler(0.5);
+
+        assertThatExceptionOfType(HttpException.class).isThrownBy(
+                () -> createClient(scheduler).getRepository(REPOSITORY))
+                .withMessageContaining("Resource not accessible by integration");
+        assertThat(sleeps).isEmpty();
+        assertThat(scheduler.getRetries()).isZero();
+    }
+
+    @Test
+    void shouldGiveUpIfRetryAfterIsTooLong() {
+        responses.add(new StubResponse(429,
+                Map.of("Retry-After", String.valueOf(RateLimitScheduler.MAX_DELAY.toSeconds() + 1)),
+                "{\"message\": \"Too many requests\"}"));
+
+        var scheduler = createScheduler(0.5);
+
+        assertThatExceptionOfType(HttpException.class).isThrownBy(
+                () -> createClient(scheduler).getRepository(REPOSITORY));
+        assertThat(sleeps).isEmpty();
+        assertThat(requests).hasValue(1);
+    }
+
+    private GitHubConnectorResponse createResponse(final int status, final Map<String, String> headers) {
+        var response = mock(GitHubConnectorResponse.class);
+        when(response.statusCode()).thenReturn(status);
+        headers.forEach((name, value) -> when(response.header(name)).thenReturn(value));
+        return response;
+    }
+
+    private RateLimitScheduler createScheduler(final double jitter) {
+        return new RateLimitScheduler(new HttpClientGitHubConnector(HttpClient.newHttpClient()), sleeps::add,
+                () -> jitter, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    private GitHubClient createClient(final RateLimitScheduler scheduler) throws IOException {
+        return GitHubClient.create("http://localhost:" + server.getAddress().getPort(), "token", scheduler);
+    }
+
+    private void respond(final HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        var response = Objects.requireNonNullElse(responses.poll(),
+                new StubResponse(404, Map.of(), "{\"message\": \"Not Found\"}"));
+        var body = response.body().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        response.headers().forEach(exchange.getResponseHeaders()::add);
+        exchange.sendResponseHeaders(response.status(), body.length);
+        try (var output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+
+    private record StubResponse(int status, Map<String, String> headers, String body) {
+    }
+}
@@ -0,0 +1,109 @@
+package edu.hm.hafner.grading.github;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import edu.hm.hafner.coverage.Mutation;
+import edu.hm.hafner.grading.FileSystemToolParser;
+import edu.hm.hafner.grading.ToolConfiguration;
+import edu.hm.hafner.util.FilteredLog;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ReportDirectoryToolParserTest {
+    private static final String REPORTS = "src/test/resources";
+
+    @Test
+    void shouldReadSameResultsAsFileSystemToolParser() {
+        var checkstyle = createTool("checkstyle", "CheckStyle", "**/checkstyle/checkstyle*.xml", "");
+        var jacoco = createTool("jacoco", "Line Coverage", "**/jacoco/jacoco.xml", "line");
+
+        var log = new FilteredLog("Errors");
+        var parser = new ReportDirectoryToolParser(ReportPatterns.resolve(REPORTS));
+        var expected = new FileSystemToolParser();
+
+        assertThat(parser.readReport(checkstyle, log)).hasSize(19)
+                .isEqualTo(expected.readReport(checkstyle, log));
+        assertThat(parser.readNode(jacoco, log)).isEqualTo(expected.readNode(jacoco, log));
+        assertThat(log.hasErrors()).isFalse();
+    }
+
+    @Test
+    void shouldParseReportFilesInParallel() {
+        var checkstyle = createTool("checkstyle", "CheckStyle", "**/checkstyle/checkstyle*.xml", "");
+        var junit = createTool("junit", "Tests", "**/junit/TEST*.xml", "tests");
+
+        var sequentialLog = new FilteredLog("Errors");
+        var sequential = new ReportDirectoryToolParser(ReportPatterns.resolve(REPORTS));
+        var parallelLog = new FilteredLog("Errors");
+        var parallel = new ReportDirectoryToolParser(ReportPatterns.resolve(REPORTS), 4, false);
+
+        assertThat(parallel.readReport(checkstyle, parallelLog))
+                .isEqualTo(sequential.readReport(checkstyle, sequentialLog));
+        assertThat(parallel.readNode(junit, parallelLog)).isEqualTo(sequential.readNode(junit, sequentialLog));
+        assertThat(parallelLog.getInfoMessages()).isEqualTo(sequentialLog.getInfoMessages())
+                .filteredOn(message -> message.startsWith("- ")).hasSizeGreaterThan(2);
+        assertThat(parallelLog.hasErrors()).isFalse();
+    }
+
+    @Test
+    void shouldTrimEachReportFile(@TempDir final Path directory) throws IOException {
+        var jacoco = new ToolConfiguration("jacoco", "Line Coverage", "**/jacoco-*.xml", "line", "");
+        var pit = new ToolConfiguration("pit", "Mutation Coverage", "**/mutations.xml", "mutation", "");
+        Files.createDirectories(directory.resolve("pit"));
+        Files.copy(Path.of(REPORTS, "jacoco", "jacoco.xml"), directory.resolve("jacoco-unit.xml"));
+        Files.copy(Path.of(REPORTS, "pit", "mutations.xml"), directory.resolve("pit/mutations.xml"));
+
+        var log = new FilteredLog("Errors");
+        var parser = new ReportDirectoryToolParser(directory, 1, true);
+        var expected = new ReportDirectoryToolParser(directory);
+
+        assertThat(parser.readNode(jacoco, log).aggregateValues())
+                .isEqualTo(expected.readNode(jacoco, log).aggregateValues());
+        assertThat(parser.readNode(pit, log).getAllFileNodes()).isNotEmpty()
+                .allSatisfy(file -> assertThat(file.getMutations()).allMatch(Mutation::hasSurvived));
+        assertThat(log.getInfoMessages()).noneMatch(message -> message.startsWith("Several reports"));
+
+        Files.copy(Path.of(REPORTS, "jacoco", "jacoco.xml"), directory.resolve("jacoco-integration.xml"));
+
+        assertThat(parser.readNode(jacoco, log).aggregateValues())
+                .isEqualTo(expected.readNode(jacoco, log).aggregateValues());
+        assertThat(log.getInfoMessages()).contains(
+                "Several reports of Line Coverage contain the same files, trimming the merged coverage tree");
+        assertThat(log.hasErrors()).isFalse();
+    }
+
+    @Test
+    void shouldSearchOnlyInReportDirectory() {
+        var log = new FilteredLog("Errors");
+        var parser = new ReportDirectoryToolParser(ReportPatterns.resolve("src/main"));
+
+        var report = parser.readReport(new ToolConfiguration("checkstyle", "CheckStyle",
+                "**/src/test/resources/checkstyle/checkstyle*.xml", "", ""), log);
+
+        assertThat(report).isEmpty();
+        assertThat(log.getErrorMessages()).contains("No matching report files found when using pattern "
+                + "'**/src/test/resources/checkstyle/checkstyle*.xml'! Configuration error for 'CheckStyle'?");
+    }
+
+    @Test
+    void shouldReportMissingDirectory() {
+        var log = new FilteredLog("Errors");
+        var parser = new ReportDirectoryToolParser(Path.of("./does-not-exist"));
+
+        var node = parser.readNode(createTool("jacoco", "Line Coverage", "**/jacoco.xml", "line"), log);
+
+        assertThat(node.getChildren()).isEmpty();
+        assertThat(log.getErrorMessages()).contains("No matching report files found when using pattern "
+                + "'./src/test/resources{,/**}/jacoco.xml'! Configuration error for 'Line Coverage'?");
+    }
+
+    private ToolConfiguration createTool(final String id, final String name, final String pattern,
+            final String metric) {
+        return new ToolConfiguration(id, name, ReportPatterns.relocatePattern(pattern, REPORTS), metric, "");
+    }
+}
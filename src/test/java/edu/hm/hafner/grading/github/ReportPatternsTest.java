@@ -0,0 +1,50 @@
+package edu.hm.hafner.grading.github;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ReportPatternsTest {
+    @ParameterizedTest(name = "{0} -> {2}")
+    @CsvSource({
+            "**/target/checkstyle-result.xml, work/repo1, './work/repo1{,/**}/target/checkstyle-result.xml'",
+            "./target/pmd.xml, work/repo1, ./work/repo1/target/pmd.xml",
+            "target/pmd.xml, ./work/../work/repo1/, ./work/repo1/target/pmd.xml",
+            "**/*.xml, 'reports[1]', './reports\\[1\\]{,/**}/*.xml'"
+    })
+    void shouldRelocatePattern(final String pattern, final String directory, final String expected) {
+        assertThat(ReportPatterns.relocatePattern(pattern, directory)).isEqualTo(expected);
+    }
+
+    @Test
+    void shouldRelocatePatternsOfAllTools() {
+        var configuration = """
+                {"analysis": [{"name": "Style", "tools": [
+                  {"id": "checkstyle", "pattern": "**/checkstyle.xml"},
+                  {"id": "pmd"}
+                ]}]}
+                """;
+
+        assertThat(ReportPatterns.relocate(configuration, "repo"))
+                .contains("\"pattern\":\"./repo{,/**}/checkstyle.xml\"")
+                .contains("{\"id\":\"pmd\"}");
+    }
+
+    @Test
+    void shouldResolveReportDirectory() {
+        assertThat(ReportPatterns.resolve("./work/../work/repo1/")).hasToString("./work/repo1");
+        assertThat(ReportPatterns.resolve(".")).hasToString(".");
+        assertThatIllegalArgumentException().isThrownBy(() -> ReportPatterns.resolve("../other"))
+                .withMessageContaining("../other");
+    }
+
+    @Test
+    void shouldRejectDirectoryOutsideOfWorkingDirectory() {
+        assertThatIllegalArgumentException().isThrownBy(() -> ReportPatterns.relocate("{}", "../other"))
+                .withMessageContaining("../other");
+        assertThatIllegalArgumentException().isThrownBy(() -> ReportPatterns.relocate("{", "repo"))
+                .withMessageContaining("Invalid JSON");
+    }
+}
@@ -0,0 +1,139 @@
+package edu.hm.hafner.grading.github;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.hm.hafner.grading.AggregatedScore;
+import edu.hm.hafner.grading.AnalysisConfiguration;
+import edu.hm.hafner.grading.CoverageConfiguration;
+import edu.hm.hafner.grading.FileSystemToolParser;
+import edu.hm.hafner.grading.QualityGate;
+import edu.hm.hafner.grading.QualityGate.Criticality;
+import edu.hm.hafner.grading.QualityGateEvaluation;
+import edu.hm.hafner.grading.QualityGateResult;
+import edu.hm.hafner.grading.TestConfiguration;
+import edu.hm.hafner.util.FilteredLog;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ScoreExporterTest {
+    private static final String CONFIGURATION = """
+            {
+              "tests": {
+                "tools": [
+                  {
+                    "id": "junit",
+                    "name": "Unittests",
+                    "pattern": "**/src/test/resources/junit/TEST*.xml"
+                  }
+                ],
+                "name": "JUnit",
+                "passedImpact": 1,
+                "failureImpact": -5,
+                "maxScore": 100
+              },
+              "analysis": [
+                {
+                  "name": "Style",
+                  "id": "style",
+                  "tools": [
+                    {
+                      "id": "checkstyle",
+                      "name": "CheckStyle",
+                      "pattern": "**/src/test/resources/checkstyle/checkstyle*.xml"
+                    },
+                    {
+                      "id": "pmd",
+                      "name": "PMD",
+                      "pattern": "**/src/test/resources/pmd/pmd*.xml"
+                    }
+                  ],
+                  "normalImpact": -1,
+                  "maxScore": 100
+                }
+              ],
+              "coverage": [
+                {
+                  "tools": [
+                    {
+                      "id": "jacoco",
+                      "name": "Line Coverage",
+                      "metric": "line",
+                      "pattern": "**/src/test/resources/jacoco/jacoco.xml"
+                    },
+                    {
+                      "id": "pit",
+                      "name": "Mutation Coverage",
+                      "metric": "mutation",
+                      "pattern": "**/src/test/resources/pit/mutations.xml"
+                    }
+                  ],
+                  "name": "Coverage",
+                  "maxScore": 100,
+                  "missedPercentageImpact": -1
+                }
+              ]
+            }
+            """;
+
+    @Test
+    void shouldExportSameResultsAsJsonAndBinary(@TempDir final Path directory) throws IOException {
+        var log = new FilteredLog("Errors:");
+        var score = new AggregatedScore(log);
+        var parser = new FileSystemToolParser();
+        score.gradeTests(parser, TestConfiguration.from(CONFIGURATION));
+        score.gradeCoverage(parser, CoverageConfiguration.from(CONFIGURATION));
+        score.gradeAnalysis(parser, AnalysisConfiguration.from(CONFIGURATION));
+        var qualityGates = new QualityGateResult(List.of(new QualityGateEvaluation(
+                new QualityGate("Line Coverage", "line", 90.0, Criticality.FAILURE), 80.0, false, "Too low")));
+
+        var json = directory.resolve("score.json");
+        var binary = directory.resolve("score.bin");
+        new ScoreExporter(score, qualityGates).export(json.toString(), binary.toString(), log);
+
+        assertThat(log.getInfoMessages()).contains("Exported score as JSON to '" + json + "'",
+                "Exported score in binary format to '" + binary + "'");
+        assertThat(Files.size(binary)).isLessThan(Files.size(json));
+
+        var expected = new ObjectMapper().readTree(json.toFile());
+        var actual = BinaryExportWriter.read(new ByteArrayInputStream(Files.readAllBytes(binary)));
+        assertThat(actual).isEqualTo(expected);
+
+        assertThat(expected.get("version").asInt()).isEqualTo(ScoreExporter.FORMAT_VERSION);
+        assertThat(expected.get("score").get("achieved").asInt()).isEqualTo(score.getAchievedScore());
+        assertThat(expected.get("metrics").size()).isEqualTo(score.getMetrics().size());
+        assertThat(expected.get("testScores").get(0).get("subScores").get(0).get("failures")).isNotEmpty();
+        assertThat(expected.get("coverageScores").get(0).get("subScores").get(0).get("files")).isNotEmpty();
+        assertThat(expected.get("analysisScores").get(0).get("subScores")).hasSize(2)
+                .allSatisfy(tool -> assertThat(tool.get("issues")).isNotEmpty());
+        assertThat(expected.get("qualityGates").get("status").asText()).isEqualTo("FAILURE");
+        assertThat(expected.get("qualityGates").get("evaluations").get(0).get("passed").asBoolean()).isFalse();
+    }
+
+    @Test
+    void shouldRejectUnknownFormat() {
+        assertThatIOException()
+                .isThrownBy(() -> BinaryExportWriter.read(new ByteArrayInputStream(new byte[] {'{', '}', 0, 0, 1})))
+                .withMessage("Not a binary score export");
+    }
+
+    @Test
+    void shouldRejectTextsThatExceedTheMaximumLength() {
+        var tooLong = BinaryExportWriter.MAX_TEXT_LENGTH + 1;
+        var export = new byte[] {'A', 'G', 'S', 'X', BinaryExportWriter.VERSION, 5, 0,
+                (byte) ((tooLong & 0x7F) | 0x80), (byte) (((tooLong >>> 7) & 0x7F) | 0x80),
+                (byte) (((tooLong >>> 14) & 0x7F) | 0x80), (byte) (tooLong >>> 21)};
+
+        assertThatIOException()
+                .isThrownBy(() -> BinaryExportWriter.read(new ByteArrayInputStream(export)))
+                .withMessage("Invalid text length in binary score export: " + tooLong);
+    }
+}
@@ -0,0 +1,45 @@
+package edu.hm.hafner.grading.github;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import edu.hm.hafner.util.FilteredLog;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+class StepOutputWriterTest {
+    @Test
+    void shouldAppendSummaryAndOutputs(@TempDir final Path workspace) throws IOException {
+        var summary = workspace.resolve("summary.md");
+        var outputs = workspace.resolve("outputs.env");
+        Files.writeString(outputs, "previous=1\n");
+
+        var log = new FilteredLog("Errors");
+        var writer = new StepOutputWriter(summary.toString(), outputs.toString(), log);
+        writer.appendSummary("# First");
+        writer.appendSummary("# Second");
+        writer.appendOutputs(Map.of("line", 80));
+
+        assertThat(summary).hasContent("# First\n# Second\n");
+        assertThat(outputs).hasContent("previous=1\nline=80\n");
+        assertThat(log.hasErrors()).isFalse();
+    }
+
+    @Test
+    void shouldSkipUndefinedFiles() {
+        var log = new FilteredLog("Errors");
+        var writer = new StepOutputWriter("", "", log);
+        writer.appendSummary("# Summary");
+        writer.appendOutputs(Map.of("line", 80));
+
+        assertThat(log.hasErrors()).isFalse();
+        assertThat(log.getInfoMessages()).contains(
+                "No GITHUB_STEP_SUMMARY defined - skipping",
+                "No GITHUB_OUTPUT defined - skipping");
+    }
+}
@@ -0,0 +1,41 @@
+package edu.hm.hafner.grading.github;
+
+import org.junit.jupiter.api.Test;
+
+import edu.hm.hafner.grading.github.PerformanceRecorder.Measurement;
+
+import java.io.IOException;
+import java.net.URI;
+
+import org.kohsuke.github.connector.GitHubConnector;
+import org.kohsuke.github.connector.GitHubConnectorRequest;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TimingConnectorTest {
+    private static final String URL = "https://api.github.com/repos/uhafner/autograding-github-action/check-runs/42";
+
+    @Test
+    void shouldRecordRequestsOnlyInRegisteredRecorders() throws IOException {
+        var connector = new TimingConnector(mock(GitHubConnector.class));
+        var request = mock(GitHubConnectorRequest.class);
+        when(request.method()).thenReturn("PATCH");
+        when(request.url()).thenReturn(URI.create(URL).toURL());
+
+        var first = new PerformanceRecorder();
+        var second = new PerformanceRecorder();
+
+        connector.send(request);
+        connector.register(first);
+        connector.send(request);
+        connector.register(second);
+        connector.send(request);
+        connector.unregister(first);
+        connector.send(request);
+
+        assertThat(first.getMeasurements()).extracting(Measurement::name, Measurement::count).containsExactly(
+                tuple("GitHub API: PATCH /repos/uhafner/autograding-github-action/check-runs/{id}", 2L));
+        assertThat(second.getMeasurements()).extracting(Measurement::count).containsExactly(2L);
+    }
+}